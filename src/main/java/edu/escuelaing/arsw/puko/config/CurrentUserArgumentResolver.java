@@ -0,0 +1,62 @@
+package edu.escuelaing.arsw.puko.config;
+
+import edu.escuelaing.arsw.puko.exception.UserNotFoundException;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
+import edu.escuelaing.arsw.puko.service.UserIdentityCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+// Inyecta el CurrentUser de la petición en los controladores. Se resuelve una vez por petición:
+// de los claims del JWT si los trae completos, si no de la caché de identidades.
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName();
+
+    private final UserIdentityCache identities;
+
+    @Autowired
+    public CurrentUserArgumentResolver(UserIdentityCache identities) {
+        this.identities = identities;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public CurrentUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                       NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object resolved = webRequest.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved instanceof CurrentUser currentUser) {
+            return currentUser;
+        }
+        CurrentUser currentUser = resolve(SecurityContextHolder.getContext().getAuthentication());
+        webRequest.setAttribute(REQUEST_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        return currentUser;
+    }
+
+    private CurrentUser resolve(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails userDetails)) {
+            throw new UserNotFoundException("Usuario no autenticado");
+        }
+        if (userDetails instanceof JwtPrincipal principal && principal.getName() != null) {
+            return new CurrentUser(principal.getId(), principal.getUsername(), principal.getName());
+        }
+        CurrentUser currentUser = identities.get(userDetails.getUsername());
+        if (currentUser == null) {
+            throw new UserNotFoundException("Usuario no encontrado para:" + userDetails.getUsername());
+        }
+        return currentUser;
+    }
+}
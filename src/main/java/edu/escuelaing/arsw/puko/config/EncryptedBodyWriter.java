@@ -0,0 +1,79 @@
+package edu.escuelaing.arsw.puko.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+// Serializa un cuerpo como JSON -> Cipher -> (Base64) en streaming, sin copias completas intermedias
+@Component
+public class EncryptedBodyWriter {
+
+    static final String ENCRYPTION_ERROR = "Try again later or reload the page";
+
+    private final ObjectWriter writer;
+
+    private final EncryptionEngine engine;
+
+    @Autowired
+    public EncryptedBodyWriter(ObjectMapper objectMapper) {
+        this(objectMapper, Encryption.encryptor());
+    }
+
+    EncryptedBodyWriter(ObjectMapper objectMapper, EncryptionEngine engine) {
+        // El stream se cierra aquí: así CipherOutputStream aplica doFinal y Base64 su relleno
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.engine = engine;
+    }
+
+    public void write(Object body, OutputStream target, boolean raw) throws IOException {
+        if (body instanceof EncryptedBytes cached) {
+            writeEncrypted(cached.ciphertext(), target, raw);
+            return;
+        }
+        OutputStream encoded = raw ? StreamUtils.nonClosing(target) : Base64.getEncoder().wrap(StreamUtils.nonClosing(target));
+        OutputStream encrypted;
+        try {
+            encrypted = engine.wrap(encoded);
+        } catch (GeneralSecurityException e) {
+            target.write(ENCRYPTION_ERROR.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        try (encrypted) {
+            if (body instanceof String text) {
+                encrypted.write(text.getBytes(StandardCharsets.UTF_8));
+            } else {
+                writer.writeValue(encrypted, body);
+            }
+        } catch (IOException | RuntimeException e) {
+            engine.discard();
+            throw e;
+        }
+    }
+
+    // Texto cifrado completo, para guardarlo y enviarlo luego sin volver a serializar ni cifrar
+    public EncryptedBytes encrypt(Object body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        write(body, buffer, true);
+        return new EncryptedBytes(buffer.toByteArray());
+    }
+
+    private static void writeEncrypted(byte[] ciphertext, OutputStream target, boolean raw) throws IOException {
+        if (raw) {
+            target.write(ciphertext);
+        } else {
+            try (OutputStream encoded = Base64.getEncoder().wrap(StreamUtils.nonClosing(target))) {
+                encoded.write(ciphertext);
+            }
+        }
+    }
+}
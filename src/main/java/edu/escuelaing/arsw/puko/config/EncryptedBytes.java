@@ -0,0 +1,5 @@
+package edu.escuelaing.arsw.puko.config;
+
+// Respuesta ya serializada y cifrada; EncryptedResponseAdvice solo la codifica (o no) en Base64
+public record EncryptedBytes(byte[] ciphertext) {
+}
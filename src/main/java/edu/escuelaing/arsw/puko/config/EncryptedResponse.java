@@ -0,0 +1,12 @@
+package edu.escuelaing.arsw.puko.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca un endpoint cuya respuesta exitosa se serializa y cifra en streaming (ver EncryptedResponseAdvice)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EncryptedResponse {
+}
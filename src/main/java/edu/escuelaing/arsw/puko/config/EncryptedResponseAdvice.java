@@ -0,0 +1,61 @@
+package edu.escuelaing.arsw.puko.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Escribe las respuestas de los endpoints @EncryptedResponse como JSON -> Cipher -> Base64 directo al socket,
+// sin armar el JSON, el cifrado y el Base64 como copias completas en memoria.
+// Con el encabezado "X-Encrypted-Encoding: raw" se omite el Base64 y se envían los bytes cifrados.
+@ControllerAdvice
+public class EncryptedResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String ENCODING_HEADER = "X-Encrypted-Encoding";
+
+    private final EncryptedBodyWriter bodyWriter;
+
+    @Autowired
+    public EncryptedResponseAdvice(EncryptedBodyWriter bodyWriter) {
+        this.bodyWriter = bodyWriter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(EncryptedResponse.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        // Los errores se envían tal cual, como antes
+        if (body == null || !isSuccessful(response)) {
+            return body;
+        }
+        boolean raw = "raw".equalsIgnoreCase(request.getHeaders().getFirst(ENCODING_HEADER));
+        response.getHeaders().setContentType(raw ? MediaType.APPLICATION_OCTET_STREAM
+                : new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        try {
+            bodyWriter.write(body, response.getBody(), raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Ya se escribió la respuesta: ningún converter debe volver a hacerlo
+        return null;
+    }
+
+    private static boolean isSuccessful(ServerHttpResponse response) {
+        return !(response instanceof ServletServerHttpResponse servletResponse)
+                || servletResponse.getServletResponse().getStatus() < 300;
+    }
+}
@@ -0,0 +1,84 @@
+package edu.escuelaing.arsw.puko.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Respuestas cifradas de los endpoints de lectura más consultados, por clave y versión del contenido.
+// Mientras la versión no cambie, todos los clientes reciben los mismos bytes: un cifrado por cambio, no por petición.
+@Component
+public class EncryptedResponseCache {
+
+    private record Cached(long version, EncryptedBytes body) {
+    }
+
+    private final EncryptedBodyWriter bodyWriter;
+
+    private final boolean enabled;
+
+    private final int maxEntries;
+
+    // En orden de acceso: al llenarse se descarta solo la respuesta usada hace más tiempo. El monitor del mapa
+    // se toma solo para leer y publicar; el cuerpo se arma fuera.
+    private final Map<String, Cached> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    @Autowired
+    public EncryptedResponseCache(EncryptedBodyWriter bodyWriter,
+                                  @Value("${puko.responses.cache.enabled:true}") boolean enabled,
+                                  @Value("${puko.responses.cache.max-entries:10000}") int maxEntries) {
+        this.bodyWriter = bodyWriter;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+    }
+
+    // La versión debe leerse antes de armar el cuerpo, para no guardar contenido viejo con una versión nueva.
+    // Devuelve null si el cuerpo es null; sin caché devuelve el cuerpo tal cual para cifrarlo al escribir.
+    public Object get(String key, long version, Supplier<?> body) {
+        if (!enabled) {
+            return body.get();
+        }
+        Cached cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.version() >= version) {
+            return cached.body();
+        }
+        // El cuerpo (consulta y cifrado) se arma fuera del monitor para no bloquear las demás claves
+        Object value = body.get();
+        if (value == null) {
+            return null;
+        }
+        Cached built = new Cached(version, encrypt(value));
+        // Si otro hilo publicó mientras tanto una versión igual o más nueva, se conserva la suya
+        synchronized (entries) {
+            return entries.merge(key, built,
+                    (current, fresh) -> current.version() >= fresh.version() ? current : fresh).body();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private EncryptedBytes encrypt(Object value) {
+        try {
+            return bodyWriter.encrypt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
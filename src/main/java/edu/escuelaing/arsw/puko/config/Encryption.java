@@ -1,12 +1,8 @@
 package edu.escuelaing.arsw.puko.config;
 
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
 
 public class Encryption {
@@ -18,28 +14,38 @@ public class Encryption {
     private static final String ALGORITHM_DECRYPT = "${ALGORITHM_DECRYPT}";
     private static final String SECRET_KEY_DECRYPT = "${SECRET-DECRYP-KEY}";
 
+    // Claves y Cipher por hilo se preparan una sola vez, no en cada respuesta
+    private static final EncryptionEngine ENCRYPTOR = new EncryptionEngine(ALGORITHM_ENCRYPT, ALGORITHM_ENCRYPT,
+            SECRET_KEY_ENCRYPT.getBytes(StandardCharsets.UTF_8), Cipher.ENCRYPT_MODE);
+    private static final EncryptionEngine DECRYPTOR = new EncryptionEngine(ALGORITHM_DECRYPT, "AES",
+            SECRET_KEY_DECRYPT.getBytes(StandardCharsets.UTF_8), Cipher.DECRYPT_MODE);
+
     public static String encrypt(String data){
         try{
-            Cipher cipher = Cipher.getInstance(ALGORITHM_ENCRYPT);
-            cipher.init(Cipher.ENCRYPT_MODE, new javax.crypto.spec.SecretKeySpec(SECRET_KEY_ENCRYPT.getBytes(), ALGORITHM_ENCRYPT));
-            byte[] encryptedData = cipher.doFinal(data.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedData);
-        }catch (NoSuchPaddingException | NoSuchAlgorithmException | InvalidKeyException | BadPaddingException |
-                IllegalBlockSizeException e){
+            return Base64.getEncoder().encodeToString(encrypt(data.getBytes(StandardCharsets.UTF_8)));
+        }catch (GeneralSecurityException e){
             return "Try again later or reload the page";
         }
 
     }
     public static String decrypt(String encryptedData) {
         try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM_DECRYPT);
-            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(SECRET_KEY_DECRYPT.getBytes(), "AES"));
-            byte[] decodedData = Base64.getDecoder().decode(encryptedData);
-            byte[] decryptedData = cipher.doFinal(decodedData);
-            return new String(decryptedData);
+            return new String(decrypt(Base64.getDecoder().decode(encryptedData)), StandardCharsets.UTF_8);
         } catch (Exception e) {
             e.printStackTrace();
             return "Error decrypting data";
         }
     }
-}
\ No newline at end of file
+
+    public static byte[] encrypt(byte[] data) throws GeneralSecurityException {
+        return ENCRYPTOR.process(data);
+    }
+
+    public static byte[] decrypt(byte[] encryptedData) throws GeneralSecurityException {
+        return DECRYPTOR.process(encryptedData);
+    }
+
+    public static EncryptionEngine encryptor() {
+        return ENCRYPTOR;
+    }
+}
@@ -0,0 +1,57 @@
+package edu.escuelaing.arsw.puko.config;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+
+// Cifrador reutilizable: la clave se construye una vez y cada hilo conserva su Cipher ya inicializado.
+// Solo sirve para transformaciones sin IV (como AES/ECB), que vuelven a su estado inicial tras doFinal.
+public final class EncryptionEngine {
+
+    private final String algorithm;
+
+    private final int mode;
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Cipher> ciphers = new ThreadLocal<>();
+
+    public EncryptionEngine(String algorithm, String keyAlgorithm, byte[] key, int mode) {
+        this.algorithm = algorithm;
+        this.mode = mode;
+        this.key = new SecretKeySpec(key, keyAlgorithm);
+    }
+
+    public byte[] process(byte[] data) throws GeneralSecurityException {
+        Cipher cipher = cipher();
+        try {
+            return cipher.doFinal(data);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            // Un Cipher que falló no se reutiliza
+            ciphers.remove();
+            throw e;
+        }
+    }
+
+    // Cifra en streaming con el Cipher del hilo; al cerrar el stream se aplica doFinal y el Cipher queda listo.
+    // Si la escritura falla antes de cerrar, hay que llamar a discard().
+    public OutputStream wrap(OutputStream target) throws GeneralSecurityException {
+        return new CipherOutputStream(target, cipher());
+    }
+
+    public void discard() {
+        ciphers.remove();
+    }
+
+    public Cipher cipher() throws GeneralSecurityException {
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(algorithm);
+            cipher.init(mode, key);
+            ciphers.set(cipher);
+        }
+        return cipher;
+    }
+}
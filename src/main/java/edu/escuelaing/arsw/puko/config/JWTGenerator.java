@@ -1,98 +1,84 @@
 package edu.escuelaing.arsw.puko.config;
 
+import edu.escuelaing.arsw.puko.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.SecureRandom;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JWTGenerator {
 
-    private final byte[] jwtSecret;
+    // La clave y el parser se construyen una vez: son inmutables y seguros entre hilos
+    private final SecretKey key;
 
+    private final JwtParser parser;
 
-    public static final long JWT_EXPIRATION = 1000 * 60 * 60;
+    private final VerifiedTokenCache verifiedTokens;
 
 
-    public JWTGenerator(@Value("${jwt.secret.key}") String jwtSecret) {
-        this.jwtSecret = jwtSecret.getBytes();
-    }
+    public static final long JWT_EXPIRATION = 1000 * 60 * 60;
 
-    public String generateToken(OAuth2User user) {
-        String username = user.getAttribute("email");
-        Date currentDate = new Date();
-        Date expireDate = new Date(currentDate.getTime() + JWT_EXPIRATION);
+    // Claims con los que el filtro arma la autenticación sin consultar la base
+    public static final String UID_CLAIM = "uid";
 
+    public static final String ROLES_CLAIM = "roles";
 
-        SecretKey key = getSecretKey();
+    public static final String NAME_CLAIM = "name";
+
+    public static final List<String> DEFAULT_ROLES = List.of("USER");
 
-        return Jwts.builder()
-                .subject(username)
-                .issuedAt(new Date())
-                .expiration(expireDate)
-                .claim("name", user.getAttribute("name"))
-                .signWith(key)
-                .compact();
-    }
 
-    public String extractUsername(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+    @Autowired
+    public JWTGenerator(@Value("${jwt.secret.key}") String jwtSecret, VerifiedTokenCache verifiedTokens) {
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());  // Converts the byte array to a SecretKey for HMAC
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = verifiedTokens;
     }
 
-    public boolean isTokenExpired(String token) {
-        Date expirationDate = Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getExpiration();
-        return expirationDate.before(new Date());
+    // Verifica la firma y devuelve los claims en un solo parseo; los tokens ya verificados salen de la caché
+    public Claims verify(String token) {
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parse(token);
+        verifiedTokens.put(token, claims);
+        return claims;
     }
 
-    public boolean validateToken(String token) {
+    private Claims parse(String token) {
         try {
-            SecretKey key = getSecretKey();
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch(SecurityException | MalformedJwtException e) {
-            throw new AuthenticationCredentialsNotFoundException("JWT was expired or incorrect");
+            throw new AuthenticationCredentialsNotFoundException("JWT was expired or incorrect", e);
         } catch (ExpiredJwtException e) {
-            throw new AuthenticationCredentialsNotFoundException("Expired JWT token.");
+            throw new AuthenticationCredentialsNotFoundException("Expired JWT token.", e);
         } catch (UnsupportedJwtException e) {
-            throw new AuthenticationCredentialsNotFoundException("Unsupported JWT token.");
+            throw new AuthenticationCredentialsNotFoundException("Unsupported JWT token.", e);
         } catch (IllegalArgumentException e) {
-            throw new AuthenticationCredentialsNotFoundException("JWT token compact of handler are invalid.");
+            throw new AuthenticationCredentialsNotFoundException("JWT token compact of handler are invalid.", e);
         }
     }
 
-    public String generateTokenFromEmail(String email) {
+    public String generateToken(User user) {
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + JWT_EXPIRATION);
 
-        SecretKey key = getSecretKey();
-
         return Jwts.builder()
-                .subject(email)
+                .subject(user.getEmail())
                 .issuedAt(currentDate)
                 .expiration(expireDate)
+                .claim(UID_CLAIM, user.getId())
+                .claim(NAME_CLAIM, user.getUsername())
+                .claim(ROLES_CLAIM, DEFAULT_ROLES)
                 .signWith(key)
                 .compact();
     }
-
-    private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(jwtSecret);  // Converts the byte array to a SecretKey for HMAC
-    }
-
-
 }
@@ -1,6 +1,7 @@
 package edu.escuelaing.arsw.puko.config;
 
 import edu.escuelaing.arsw.puko.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,11 +33,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = getJWTFromRequest(request);
 
-            if (token != null && jwtGenerator.validateToken(token)) {
-                String email = jwtGenerator.extractUsername(token);
+            if (token != null) {
+                // Una sola verificación de firma (o ninguna si el token ya está en caché)
+                Claims claims = jwtGenerator.verify(token);
 
-                // Cargar los detalles del usuario
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
+                // El principal sale de los claims; solo los tokens sin uid (emitidos antes) consultan la base
+                UserDetails userDetails = JwtPrincipal.fromClaims(claims);
+                if (userDetails == null) {
+                    userDetails = customUserDetailsService.loadUserByUsername(claims.getSubject());
+                }
 
                 // Crear la autenticación
                 UsernamePasswordAuthenticationToken authentication =
@@ -0,0 +1,69 @@
+package edu.escuelaing.arsw.puko.config;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Usuario autenticado armado solo con los claims verificados del JWT: sin consulta a la base ni hash de contraseña.
+// getUsername() devuelve el email, igual que el UserDetails que cargaba CustomUserDetailsService.
+public final class JwtPrincipal implements UserDetails {
+
+    private final Long id;
+
+    private final String email;
+
+    private final String name;
+
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(Long id, String email, String name, List<String> roles) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+
+    // Null si el token no trae uid (tokens emitidos antes de incluirlo)
+    public static JwtPrincipal fromClaims(Claims claims) {
+        Number uid = claims.get(JWTGenerator.UID_CLAIM, Number.class);
+        if (uid == null) {
+            return null;
+        }
+        List<?> roles = claims.get(JWTGenerator.ROLES_CLAIM, List.class);
+        List<String> names = roles == null
+                ? JWTGenerator.DEFAULT_ROLES
+                : roles.stream().map(Object::toString).toList();
+        return new JwtPrincipal(uid.longValue(), claims.getSubject(),
+                claims.get(JWTGenerator.NAME_CLAIM, String.class), names);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    // Nombre visible del usuario; puede faltar en tokens antiguos
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
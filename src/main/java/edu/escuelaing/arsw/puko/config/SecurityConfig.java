@@ -1,6 +1,7 @@
 package edu.escuelaing.arsw.puko.config;
 
 import edu.escuelaing.arsw.puko.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,6 +38,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/public/**", "/stompend/**", "/negotiate/**", "/auth/google").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS).permitAll()
+                        // Las respuestas asíncronas (pujas) ya fueron autorizadas en la petición original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(exception -> exception
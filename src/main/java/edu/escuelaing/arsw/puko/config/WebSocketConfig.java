@@ -0,0 +1,99 @@
+package edu.escuelaing.arsw.puko.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+// Broker STOMP en memoria para los canales de subastas (/topic/auction/{id}, /topic/auction/{id}/time, /topic/auctions).
+// Cada sesión tiene su propio buffer de salida; si un cliente lento lo llena o no avanza en send-time-limit, se cierra.
+@Configuration
+@EnableWebSocketMessageBroker
+@ConditionalOnProperty(name = "puko.events.transport", havingValue = "stomp")
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final String[] allowedOrigins;
+
+    private final int sendBufferSizeLimit;
+
+    private final int sendTimeLimit;
+
+    private final int messageSizeLimit;
+
+    private final int outboundThreads;
+
+    public WebSocketConfig(@Value("${puko.stomp.allowed-origins:*}") String[] allowedOrigins,
+                           @Value("${puko.stomp.send-buffer-bytes:524288}") int sendBufferSizeLimit,
+                           @Value("${puko.stomp.send-time-limit-ms:10000}") int sendTimeLimit,
+                           @Value("${puko.stomp.message-size-bytes:65536}") int messageSizeLimit,
+                           @Value("${puko.stomp.outbound-threads:8}") int outboundThreads) {
+        this.allowedOrigins = allowedOrigins;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sendTimeLimit = sendTimeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+        this.outboundThreads = outboundThreads;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/stompend").setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    // Spring lo inicializa y lo detiene con el contexto. No es candidato a autowiring para que @Scheduled
+    // siga resolviendo su propio TaskScheduler
+    @Bean(autowireCandidate = false)
+    public ThreadPoolTaskScheduler stompHeartbeatScheduler() {
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("stomp-heartbeat-");
+        return heartbeatScheduler;
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[]{10000, 10000})
+                .setTaskScheduler(stompHeartbeatScheduler());
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Los clientes solo se suscriben: un SEND directo a /topic se descarta para que nadie publique en nombre del servidor
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+                if (StompCommand.SEND.equals(accessor.getCommand())
+                        && (accessor.getDestination() == null || !accessor.getDestination().startsWith("/app"))) {
+                    return null;
+                }
+                return message;
+            }
+        });
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+    }
+}
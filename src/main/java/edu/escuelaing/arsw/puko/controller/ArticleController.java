@@ -1,9 +1,10 @@
 package edu.escuelaing.arsw.puko.controller;
 
-import edu.escuelaing.arsw.puko.config.Encryption;
+import edu.escuelaing.arsw.puko.config.EncryptedResponse;
 import edu.escuelaing.arsw.puko.dto.ArticleWithImageDTO;
 import edu.escuelaing.arsw.puko.dto.ArticleWithImagesDTO;
 import edu.escuelaing.arsw.puko.model.Article;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
 import edu.escuelaing.arsw.puko.model.ImageBlob;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.service.ArticleService;
@@ -11,8 +12,6 @@ import edu.escuelaing.arsw.puko.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -39,16 +38,13 @@ public class ArticleController {
             @RequestParam(value = "images", required = false) List<MultipartFile> images,
             @RequestParam("mainImageFilename") String mainImageFilename,
             @RequestParam double initialPrice,
-            @AuthenticationPrincipal UserDetails userDetails) { // Get user ID from the request
+            CurrentUser currentUser) { // Usuario de la petición, ya resuelto
 
-        // Fetch user by username
         if (images == null) {
             images = new ArrayList<>();
         }
-        User user = userService.findByEmail(userDetails.getUsername());
-        if (user == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-        }
+        // Referencia al usuario para asociarlo al artículo, sin consultarlo
+        User user = userService.reference(currentUser);
 
         try {
             // Create the article and associate it with the user
@@ -82,11 +78,12 @@ public class ArticleController {
 
 
     @GetMapping("/{articleId}/with-image")
-    public ResponseEntity<String> getArticleWithMainImage(
+    @EncryptedResponse
+    public ResponseEntity<ArticleWithImageDTO> getArticleWithMainImage(
             @PathVariable Long articleId) {
         try {
             ArticleWithImageDTO articleWithImage = articleService.getArticleWithMainImage(articleId);
-            return ResponseEntity.ok(Encryption.encrypt(articleWithImage.toString()));
+            return ResponseEntity.ok(articleWithImage);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
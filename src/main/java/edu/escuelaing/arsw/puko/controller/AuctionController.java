@@ -1,28 +1,31 @@
 package edu.escuelaing.arsw.puko.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.escuelaing.arsw.puko.config.EncryptedResponse;
+import edu.escuelaing.arsw.puko.config.EncryptedResponseCache;
 import edu.escuelaing.arsw.puko.config.Encryption;
 import edu.escuelaing.arsw.puko.dto.*;
 import edu.escuelaing.arsw.puko.exception.AuctionException;
 import edu.escuelaing.arsw.puko.exception.AuctionNotFoundException;
-import edu.escuelaing.arsw.puko.exception.UserNotFoundException;
 import edu.escuelaing.arsw.puko.model.Article;
 import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.service.ArticleService;
 import edu.escuelaing.arsw.puko.service.AuctionService;
+import edu.escuelaing.arsw.puko.service.BidSequencer;
+import edu.escuelaing.arsw.puko.service.ContentVersions;
 import edu.escuelaing.arsw.puko.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,27 +38,32 @@ public class AuctionController {
 
     private ArticleService articleService;
 
+    private BidSequencer bidSequencer;
+
+    private ContentVersions contentVersions;
+
+    private EncryptedResponseCache responseCache;
+
     @Autowired
-    public AuctionController(AuctionService auctionService, UserService userService, ArticleService articleService) {
+    public AuctionController(AuctionService auctionService, UserService userService, ArticleService articleService,
+                             BidSequencer bidSequencer, ContentVersions contentVersions,
+                             EncryptedResponseCache responseCache) {
         this.auctionService = auctionService;
         this.userService = userService;
         this.articleService = articleService;
+        this.bidSequencer = bidSequencer;
+        this.contentVersions = contentVersions;
+        this.responseCache = responseCache;
     }
 
     @PostMapping
     public ResponseEntity<AuctionDTO> createAuction(
-            @AuthenticationPrincipal UserDetails userDetails,
+            CurrentUser currentUser,
             @Valid @RequestBody AuctionCreateDTO auctionDTO) {
-        User creator = userService.findByEmail(userDetails.getUsername());
-
-        if (creator == null) {
-            throw new UserNotFoundException(userDetails.getUsername());
-        }
-
         Article article = articleService.findById(auctionDTO.getArticleId()) ;
 
         // Validar que el artículo pertenece al usuario
-        if (!article.getUser().getId().equals(creator.getId())) {
+        if (!article.getUser().getId().equals(currentUser.id())) {
             throw new AuctionException("El artículo no pertenece al usuario");
         }
 
@@ -64,7 +72,7 @@ public class AuctionController {
         }
 
         Auction auction = new Auction(
-                creator,
+                userService.reference(currentUser),
                 article,
                 auctionDTO.getDuration(),
                 auctionDTO.getStartTime()
@@ -81,11 +89,9 @@ public class AuctionController {
 
     @PostMapping("/{auctionId}/register")
     public ResponseEntity<Void> registerForAuction(
-            @AuthenticationPrincipal UserDetails userDetails,
+            CurrentUser currentUser,
             @PathVariable Long auctionId) {
-        User user = userService.findByEmail(userDetails.getUsername());
-
-        boolean registered = auctionService.registerUserForAuction(auctionId, user);
+        boolean registered = auctionService.registerUserForAuction(auctionId, userService.reference(currentUser));
 
         if (!registered) {
             throw new AuctionException("No se pudo registrar al usuario en la subasta");
@@ -95,8 +101,8 @@ public class AuctionController {
     }
 
     @PostMapping("/{auctionId}/bid")
-    public ResponseEntity<BidRankingDTO> placeBid(
-            @AuthenticationPrincipal UserDetails userDetails,
+    public CompletableFuture<ResponseEntity<BidRankingDTO>> placeBid(
+            CurrentUser currentUser,
             @PathVariable Long auctionId,
             @Valid @RequestBody Map<String, String> payload) {
 
@@ -107,14 +113,15 @@ public class AuctionController {
         }
 
         BidDTO bidDTO = parseBidDTO(decryptedData);
-        User user = userService.findByEmail(userDetails.getUsername());
-        boolean bidPlaced = auctionService.placeBid(auctionId, user, bidDTO.getAmount());
-
-        if (!bidPlaced) {
-            throw new AuctionException("No se pudo realizar la puja");
-        }
 
-        return ResponseEntity.ok().build();
+        // La respuesta se completa cuando el secuenciador procesa la puja; la subasta resuelve al usuario por id
+        return bidSequencer.submit(auctionId, currentUser.toUser(), bidDTO.getAmount())
+                .thenApply(bidPlaced -> {
+                    if (!bidPlaced) {
+                        throw new AuctionException("No se pudo realizar la puja");
+                    }
+                    return ResponseEntity.ok().<BidRankingDTO>build();
+                });
     }
 
 
@@ -122,30 +129,19 @@ public class AuctionController {
 
     @GetMapping("/{auctionId}/top-bids")
     public ResponseEntity<List<BidRankingDTO>> getTopBids(@PathVariable Long auctionId) {
-        List<Map.Entry<String, Double>> topBids = auctionService.getTopBids(auctionId);
-
-        if (topBids.isEmpty()) {
-            return ResponseEntity.ok(Collections.emptyList());
-        }
-
-        List<BidRankingDTO> rankingDTOs = topBids.stream()
-                .map(entry -> {
-                    User user = userService.findByEmail(entry.getKey());
-                    if (user != null) {
-                        return new BidRankingDTO(
-                                user.getId(),
-                                user.getUsername(),
-                                entry.getValue()
-                        );
-                    }
-                    return null;
-                })
-                .filter(Objects::nonNull)
+        // Las filas del ranking ya traen id y nombre del usuario: no se consulta la base de datos
+        List<BidRankingDTO> rankingDTOs = auctionService.getTopBids(auctionId).stream()
+                .map(BidRankingDTO::fromRankingEntry)
                 .toList();
 
         return ResponseEntity.ok(rankingDTOs);
     }
 
+    @GetMapping("/{auctionId}/ranking")
+    public ResponseEntity<RankingSnapshotDTO> getRankingSnapshot(@PathVariable Long auctionId) {
+        return ResponseEntity.ok(auctionService.getRankingSnapshot(auctionId));
+    }
+
     @GetMapping("/{auctionId}/remaining-time")
     public ResponseEntity<Duration> getRemainingTime(
             @PathVariable Long auctionId) {
@@ -153,77 +149,61 @@ public class AuctionController {
     }
 
     @GetMapping("/{auctionId}")
-    public ResponseEntity<String> getAuction(@PathVariable Long auctionId) {
-        Optional<Auction> auction = auctionService.findById(auctionId);
-        if (auction.isPresent()) {
-            return ResponseEntity.ok(Encryption.encrypt(AuctionDTO.fromAuction(auction.get()).toString()));
+    @EncryptedResponse
+    public ResponseEntity<Object> getAuction(@PathVariable Long auctionId) {
+        // Mismos bytes cifrados para todos hasta el próximo evento de la subasta
+        Object body = responseCache.get("auction:" + auctionId, contentVersions.auction(auctionId),
+                () -> auctionService.findById(auctionId).map(AuctionDTO::fromAuction).orElse(null));
+        if (body != null) {
+            return ResponseEntity.ok(body);
         }
         throw new AuctionNotFoundException(auctionId);
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<AuctionDTO>> getActiveAuctions() {
-        List<Auction> auctions = auctionService.findActiveAuctions();
-
-        // Convertir la lista de Auction a AuctionDTO
-        List<AuctionDTO> auctionDTOs = auctions.stream()
-                .map(AuctionDTO::fromAuction)
-                .toList();
+    public ResponseEntity<CursorPageDTO<AuctionSummaryDTO>> getActiveAuctions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(auctionService.findActiveAuctionSummaries(cursor, size));
+    }
 
-        return ResponseEntity.ok(auctionDTOs);
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<AuctionSummaryDTO>> searchAuctions(
+            @RequestParam String term,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(auctionService.searchAuctionSummaries(term, cursor, size));
     }
 
 
     @GetMapping("/user")
-    public ResponseEntity<List<AuctionDTO>> getUserAuctions(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userService.findByEmail(userDetails.getUsername());
-
+    public ResponseEntity<CursorPageDTO<AuctionSummaryDTO>> getUserAuctions(
+            CurrentUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_SIZE) int size) {
         // Obtener las subastas del usuario
-        List<Auction> userAuctions = auctionService.findByCreator(user);
-
-        // Convertir la lista de Auction a AuctionDTO
-        List<AuctionDTO> auctionDTOs = userAuctions.stream()
-                .map(AuctionDTO::fromAuction)
-                .toList();
-
-        return ResponseEntity.ok(auctionDTOs);
+        return ResponseEntity.ok(auctionService.findAuctionSummariesByCreator(
+                userService.reference(currentUser), cursor, size));
     }
 
 
     @GetMapping("/registered")
-    public ResponseEntity<List<AuctionDTO>> getRegisteredAuctions(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userService.findByEmail(userDetails.getUsername());
-
+    public ResponseEntity<CursorPageDTO<AuctionSummaryDTO>> getRegisteredAuctions(
+            CurrentUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_SIZE) int size) {
         // Obtener las subastas en las que el usuario está registrado
-        List<Auction> registeredAuctions = auctionService.findByRegisteredUser(user);
-
-        // Convertir la lista de Auction a AuctionDTO
-        List<AuctionDTO> auctionDTOs = registeredAuctions.stream()
-                .map(AuctionDTO::fromAuction)
-                .toList();
-
-        return ResponseEntity.ok(auctionDTOs);
+        return ResponseEntity.ok(auctionService.findAuctionSummariesByRegisteredUser(
+                userService.reference(currentUser), cursor, size));
     }
 
 
     @PostMapping("/{auctionId}/start")
     public ResponseEntity<Void> startAuction(
             @PathVariable Long auctionId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userService.findByEmail(userDetails.getUsername());
-        if (user == null) {
-            throw new UserNotFoundException("Usuario no encontrado para:" + userDetails.getUsername()); // Usuario no encontrado
-        }
-
+            CurrentUser currentUser) {
         // Verificar si el usuario es el creador de la subasta
-        Optional<Auction> auction = auctionService.findById(auctionId);
-        if (auction.isEmpty()) {
-            throw new AuctionNotFoundException(auctionId); // Subasta no encontrada
-        }
-
-        if (!auction.get().getCreator().getId().equals(user.getId())) {
+        if (!isCreator(auctionId, currentUser)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // Usuario no es el creador
         }
 
@@ -240,38 +220,35 @@ public class AuctionController {
     @PostMapping("/{auctionId}/finalize")
     public ResponseEntity<Void> finalizeAuction(
             @PathVariable Long auctionId,
-            @AuthenticationPrincipal UserDetails userDetails) throws AuctionException {
-        auctionService.finalizeAuction(auctionId);
-        User user = userService.findByEmail(userDetails.getUsername());
-
-        if (user == null) {
-            throw new UserNotFoundException("Usuario no encontrado para:" + userDetails.getUsername()); // Usuario no encontrado
-        }
-
-        // Verificar si el usuario es el creador de la subasta
-        Optional<Auction> auction = auctionService.findById(auctionId);
-        if (auction.isEmpty()) {
-            throw new AuctionNotFoundException(auctionId); // Subasta no encontrada
-        }
-
-        if (!auction.get().getCreator().getId().equals(user.getId())) {
+            CurrentUser currentUser) throws AuctionException {
+        // Solo el creador puede finalizarla: se verifica antes de tocar la subasta
+        if (!isCreator(auctionId, currentUser)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // Usuario no es el creador
         }
 
+        auctionService.finalizeAuction(auctionId);
         return ResponseEntity.ok().build();
     }
 
+    // Consulta solo el id del creador, sin cargar la subasta ni su libro de pujas
+    private boolean isCreator(Long auctionId, CurrentUser currentUser) {
+        Long creatorId = auctionService.findCreatorId(auctionId)
+                .orElseThrow(() -> new AuctionNotFoundException(auctionId)); // Subasta no encontrada
+        return creatorId.equals(currentUser.id());
+    }
 
-    @GetMapping("/available")
-    public ResponseEntity<String> getAvailableAuctions() {
-        // Obtener las subastas disponibles
-        List<Auction> availableAuctions = auctionService.findAvailableAuctions();
 
-        // Convertir la lista de Auction a AuctionDTO
-        List<AuctionDTO> auctionDTOs = availableAuctions.stream()
-                .map(AuctionDTO::fromAuction)
-                .toList();
-        return ResponseEntity.ok(Encryption.encrypt(auctionDTOs.toString()));
+    @GetMapping("/available")
+    @EncryptedResponse
+    public ResponseEntity<Object> getAvailableAuctions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_SIZE) int size) {
+        // Obtener las subastas disponibles; se cifran una vez por versión del catálogo.
+        // La clave usa el cursor decodificado y el tamaño acotado: lo que el cliente escriba no crea entradas nuevas
+        String key = "available:" + PageCursor.decode(cursor).encode() + ":" + CursorPageDTO.pageSize(size);
+        Object availableAuctions = responseCache.get(key, contentVersions.catalog(),
+                () -> auctionService.findAvailableAuctionSummaries(cursor, size));
+        return ResponseEntity.ok(availableAuctions);
     }
 
     @GetMapping("/{auctionId}/registered-users")
@@ -0,0 +1,28 @@
+package edu.escuelaing.arsw.puko.controller;
+
+import edu.escuelaing.arsw.puko.dto.RankingSnapshotDTO;
+import edu.escuelaing.arsw.puko.service.AuctionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+// Al suscribirse a /app/auction/{id}/ranking el cliente recibe el snapshot solo en su sesión;
+// después aplica los deltas de /topic/auction/{id} con secuencia mayor
+@Controller
+@ConditionalOnProperty(name = "puko.events.transport", havingValue = "stomp")
+public class AuctionStompController {
+
+    private final AuctionService auctionService;
+
+    @Autowired
+    public AuctionStompController(AuctionService auctionService) {
+        this.auctionService = auctionService;
+    }
+
+    @SubscribeMapping("/auction/{auctionId}/ranking")
+    public RankingSnapshotDTO rankingSnapshot(@DestinationVariable Long auctionId) {
+        return auctionService.getRankingSnapshot(auctionId);
+    }
+}
@@ -1,6 +1,6 @@
 package edu.escuelaing.arsw.puko.controller;
 
-import edu.escuelaing.arsw.puko.config.Encryption;
+import edu.escuelaing.arsw.puko.config.EncryptedResponse;
 import edu.escuelaing.arsw.puko.dto.UserTokenDTO;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.service.GoogleAuthService;
@@ -25,7 +25,8 @@ public class GoogleAuthController {
     }
 
     @PostMapping("/google")
-    public ResponseEntity<String> authenticateWithGoogle(@RequestBody Map<String, String> payload) {
+    @EncryptedResponse
+    public ResponseEntity<Object> authenticateWithGoogle(@RequestBody Map<String, String> payload) {
         try {
             String idToken = payload.get("id_token");
             if (idToken == null || idToken.isEmpty()) {
@@ -33,7 +34,7 @@ public class GoogleAuthController {
             }
 
             Map<String, Object> data = googleAuthService.authenticateWithGoogle(idToken);
-            return ResponseEntity.ok(Encryption.encrypt(UserTokenDTO.fromUser((User) data.get("user"), (String) data.get("token")).toString()));
+            return ResponseEntity.ok(UserTokenDTO.fromUser((User) data.get("user"), (String) data.get("token")));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(400).body(e.getMessage());
         } catch (Exception e) {
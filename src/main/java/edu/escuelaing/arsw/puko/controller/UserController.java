@@ -1,17 +1,15 @@
 package edu.escuelaing.arsw.puko.controller;
 
-import edu.escuelaing.arsw.puko.config.Encryption;
+import edu.escuelaing.arsw.puko.config.EncryptedResponse;
+import edu.escuelaing.arsw.puko.dto.CursorPageDTO;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
@@ -42,8 +40,10 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
+    public ResponseEntity<CursorPageDTO<User>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_SIZE) int size) {
+        CursorPageDTO<User> users = userService.getAllUsers(cursor, size);
         return ResponseEntity.ok(users);
     }
 
@@ -54,10 +54,12 @@ public class UserController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<String> getUserByUsername(@AuthenticationPrincipal UserDetails userDetails) {
+    @EncryptedResponse
+    public ResponseEntity<User> getUserByUsername(CurrentUser currentUser) {
         try {
-            User user = userService.getUserByEmail(userDetails.getUsername());
-            return ResponseEntity.ok(Encryption.encrypt(user.toString()));
+            // El perfil completo (saldos incluidos) sí requiere la entidad
+            User user = userService.getUserByEmail(currentUser.email());
+            return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -18,17 +18,6 @@ public class ArticleWithImageDTO {
     private String mainImage; // Imagen en formato Base64
     private double initialPrice;
 
-    @Override
-    public String toString() {
-        return "{" +
-                "\"id\":" + id +
-                ", \"name\":\"" + name + "\"" +
-                ", \"userId\":" + userId +
-                ", \"mainImage\":\"" + (mainImage != null ? mainImage : "") + "\"" +
-                ", \"initialPrice\":" + initialPrice +
-                "}";
-    }
-
 }
 
 
@@ -28,22 +28,10 @@ public class AuctionDTO {
                 auctionCreated.getStartTime().toString(),
                 auctionCreated.getStatus(),
                 auctionCreated.getTopBids().stream()
-                        .map(entry -> new BidDTO(entry.getKey(), entry.getValue()))
+                        .map(entry -> new BidDTO(entry.username(), entry.amount()))
                         .toList()
         );
     }
-    @Override
-    public String toString() {
-        return "{" +
-                "\"id\":" + id + "," +
-                "\"articleId\":" + articleId + "," +
-                "\"creatorId\":" + creatorId + "," +
-                "\"duration\":" + duration + "," +
-                "\"startTime\":\"" + startTime + "\"," +
-                "\"status\":\"" + status + "\"," +
-                "\"bidRanking\":" + bidRanking +
-                "}";
-    }
     @Getter
     @Setter
     @AllArgsConstructor
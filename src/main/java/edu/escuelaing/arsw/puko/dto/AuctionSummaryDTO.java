@@ -0,0 +1,34 @@
+package edu.escuelaing.arsw.puko.dto;
+
+import edu.escuelaing.arsw.puko.model.Auction;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Fila de los listados de subastas, armada directamente por las consultas de AuctionRepository
+@Getter
+@Setter
+public class AuctionSummaryDTO {
+    private Long id;
+    private Long articleId;
+    private String articleName;
+    private Long creatorId;
+    private Long duration;
+    private String startTime;
+    private Auction.AuctionStatus status;
+    private Double topBid;
+
+    public AuctionSummaryDTO(Long id, Long articleId, String articleName, Long creatorId, Duration duration,
+                             LocalDateTime startTime, Auction.AuctionStatus status, Double topBid) {
+        this.id = id;
+        this.articleId = articleId;
+        this.articleName = articleName;
+        this.creatorId = creatorId;
+        this.duration = duration.toMillis();
+        this.startTime = startTime.toString();
+        this.status = status;
+        this.topBid = topBid;
+    }
+}
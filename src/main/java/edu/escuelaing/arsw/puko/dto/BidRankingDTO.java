@@ -1,5 +1,6 @@
 package edu.escuelaing.arsw.puko.dto;
 
+import edu.escuelaing.arsw.puko.model.RankingEntry;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,4 +14,8 @@ public class BidRankingDTO {
     private Long userId;
     private String username;
     private Double amount;
+
+    public static BidRankingDTO fromRankingEntry(RankingEntry entry) {
+        return new BidRankingDTO(entry.userId(), entry.username(), entry.amount());
+    }
 }
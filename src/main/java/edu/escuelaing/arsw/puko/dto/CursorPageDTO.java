@@ -0,0 +1,35 @@
+package edu.escuelaing.arsw.puko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página de un listado paginado por keyset; nextCursor es null cuando no hay más resultados
+@Getter
+@Setter
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+
+    public static final int MAX_SIZE = 100;
+
+    private List<T> items;
+    private String nextCursor;
+
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    // Las consultas piden una fila de más: si llega, hay otra página y su cursor es la última fila devuelta
+    public static <T> CursorPageDTO<T> of(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPageDTO<>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+    }
+}
@@ -0,0 +1,21 @@
+package edu.escuelaing.arsw.puko.dto;
+
+import edu.escuelaing.arsw.puko.model.RankingChange;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Estado combinado de las pujas aceptadas en una ventana: precio, líder y las posiciones del ranking que cambiaron.
+// El cliente aplica el evento solo si su secuencia es la siguiente a la última aplicada; ante un salto pide un snapshot.
+@Getter
+@AllArgsConstructor
+public class EventBidUpdateDTO {
+    private Long auctionId;
+    private long sequence;
+    private double amount;
+    private String leader;
+    private int bids;
+    private int rankingSize;
+    private List<RankingChange> changes;
+}
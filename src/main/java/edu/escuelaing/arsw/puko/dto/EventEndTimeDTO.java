@@ -0,0 +1,15 @@
+package edu.escuelaing.arsw.puko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+// Fin de la subasta y hora del servidor (epoch ms): el cliente calcula su desfase y cuenta hacia atrás localmente
+@Getter
+@Setter
+@AllArgsConstructor
+public class EventEndTimeDTO {
+    private Long auctionId;
+    private long endTime;
+    private long serverTime;
+}
@@ -0,0 +1,11 @@
+package edu.escuelaing.arsw.puko.dto;
+
+import edu.escuelaing.arsw.puko.model.User;
+
+// Ganador publicado en AUCTION_FINALIZED: solo lo que el cliente muestra, nunca la entidad con sus saldos
+public record EventWinnerDTO(Long id, String username) {
+
+    public static EventWinnerDTO of(User winner) {
+        return winner == null ? null : new EventWinnerDTO(winner.getId(), winner.getUsername());
+    }
+}
@@ -0,0 +1,42 @@
+package edu.escuelaing.arsw.puko.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Posición de un listado ordenado por (startTime, id) o solo por id; el cliente la recibe como token opaco
+public record PageCursor(LocalDateTime startTime, long id) {
+
+    // Menor fecha que acepta un DATETIME de MySQL: la primera página empieza antes de cualquier subasta
+    public static final PageCursor FIRST = new PageCursor(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+
+    private static final String SEPARATOR = "|";
+
+    public static PageCursor after(LocalDateTime startTime, long id) {
+        return new PageCursor(startTime, id);
+    }
+
+    public static PageCursor after(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public String encode() {
+        String raw = (startTime == null ? "" : startTime.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            String startTime = raw.substring(0, separator);
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new PageCursor(startTime.isEmpty() ? FIRST.startTime() : LocalDateTime.parse(startTime), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+}
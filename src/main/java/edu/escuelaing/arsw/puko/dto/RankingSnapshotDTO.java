@@ -0,0 +1,16 @@
+package edu.escuelaing.arsw.puko.dto;
+
+import edu.escuelaing.arsw.puko.model.RankingEntry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Ranking completo de una subasta a una secuencia dada: los deltas posteriores tienen secuencia mayor
+@Getter
+@AllArgsConstructor
+public class RankingSnapshotDTO {
+    private Long auctionId;
+    private long sequence;
+    private List<RankingEntry> ranking;
+}
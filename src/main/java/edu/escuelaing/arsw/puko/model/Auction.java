@@ -11,10 +11,12 @@ import lombok.SneakyThrows;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_auction_status_start", columnList = "status, start_time, id"),
+        @Index(name = "idx_auction_creator_start", columnList = "creator_id, start_time, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -49,14 +51,16 @@ public class Auction {
     @Column(nullable = false)
     private volatile AuctionStatus status = AuctionStatus.SCHEDULED;
 
-    @OneToMany(mappedBy = "auction", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Bid> bids = Collections.synchronizedList(new ArrayList<>());
+    @Transient
+    private final Object bidLock = new Object(); // objeto específico para sincronización de pujas
 
+    // Las pujas no se mapean en la subasta: se consultan con BidRepository y se resumen en este libro
     @Transient
-    private final ConcurrentHashMap<String, Double> bidRanking = new ConcurrentHashMap<>();
+    private BidBook bidBook;
 
+    // Billetera que reserva y cobra las pujas; sin ella se modifican los saldos de las entidades
     @Transient
-    private final Object bidLock = new Object(); // objeto específico para sincronización de pujas
+    private BidFunds funds;
 
     public Auction(Long id, User creator) {
         this.id = id;
@@ -98,6 +102,10 @@ public class Auction {
         }
 
         status = AuctionStatus.ACTIVE;
+        // Al activarse, el libro se reconstruye desde las pujas persistidas
+        synchronized (bidLock) {
+            bidBook = null;
+        }
         return true;
     }
 
@@ -108,7 +116,7 @@ public class Auction {
 
         synchronized(registeredUsers) {
             if (registeredUsers.add(user)) {
-                bidRanking.put(user.getUsername(), 0.0);
+                getBidBook().register(user);
                 return true;
             }
             return false;
@@ -116,7 +124,9 @@ public class Auction {
     }
 
     @Transactional
-    public boolean placeBid(User user, double amount) {
+    public boolean placeBid(User bidder, double amount) {
+        // El usuario puede venir de otra sesión (p. ej. el secuenciador de pujas): se usa la instancia registrada
+        User user = resolveUser(bidder);
         if (status != AuctionStatus.ACTIVE || !registeredUsers.contains(user) || amount < article.getInitialPrice()) {
             return false;
         }
@@ -125,7 +135,17 @@ public class Auction {
             if (status != AuctionStatus.ACTIVE || !registeredUsers.contains(user) || amount < article.getInitialPrice()) {
                 return false;
             }
-            Optional<Bid> highestBid = bids.stream().max(Comparator.comparing(Bid::getAmount));
+            Optional<Bid> highestBid = getBidBook().getHighestBid();
+
+            if (funds != null) {
+                if (highestBid.isPresent() && amount <= highestBid.get().getAmount()) {
+                    return false;
+                }
+                if (!funds.hold(this, user, amount, highestBid.orElse(null))) {
+                    return false;
+                }
+                return acceptBid(user, amount);
+            }
 
             // Verificar si el usuario tiene fondos suficientes
             if (amount > user.getTemporaryMoney()) {
@@ -139,7 +159,7 @@ public class Auction {
                 creator.setTemporaryMoney(creator.getTemporaryMoney() - highestBid.get().getAmount());
                 creator.setTemporaryMoney(creator.getTemporaryMoney() + amount);
                 // Reintegrar el dinero de la puja superada al usuario anterior
-                User previousHighestUser = highestBid.get().getUser();
+                User previousHighestUser = resolveUser(highestBid.get().getUser());
                 previousHighestUser.setTemporaryMoney(previousHighestUser.getTemporaryMoney() + highestBid.get().getAmount());
             } else if (highestBid.isPresent() && amount <= highestBid.get().getAmount()) {
                 // Si la puja no es mayor, no procede
@@ -150,47 +170,61 @@ public class Auction {
 
             // Registrar la nueva puja y descontar el monto del dinero temporal del usuario
             user.setTemporaryMoney(user.getTemporaryMoney() - amount);
-            Bid newBid = new Bid();
-            newBid.setAuction(this);
-            newBid.setUser(user);
-            newBid.setAmount(amount);
-            newBid.setBidTime(LocalDateTime.now());
-            bids.add(newBid); // Agregar la nueva puja más alta
-
-            bidRanking.put(user.getUsername(), amount);
-            return true;
+            return acceptBid(user, amount);
         }
     }
 
+    private boolean acceptBid(User user, double amount) {
+        Bid newBid = new Bid();
+        newBid.setAuction(this);
+        newBid.setUser(user);
+        newBid.setAmount(amount);
+        newBid.setBidTime(LocalDateTime.now());
+        // La puja se persiste aparte (AuctionService), sin recorrer ni guardar la colección completa
+        getBidBook().accept(newBid);
+        return true;
+    }
+
 
 
 
 
-    private List<Map.Entry<String, Double>> getLeaderboard() {
-        return bidRanking.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()) // Asegúrate de que se ordena correctamente
-                .toList();
+    // Top 10 del ranking, mantenido de forma incremental por el libro de pujas
+    public List<RankingEntry> getTopBids() {
+        return getBidBook().getTopBids();
     }
 
 
-    public List<Map.Entry<String, Double>> getTopBids() {
-        // Asegurarse de que el ranking esté actualizado antes de devolverlo
-        initializeBidRanking();
+    // Método para obtener el usuario que está en primer lugar
+    public Optional<User> getCurrentLeader() {
+        return getBidBook().getLeader().map(this::resolveUser);
+    }
 
-        return getLeaderboard().stream()
-                .limit(10) // Limitar a los 10 primeros
-                .toList();
+    public BidBook getBidBook() {
+        synchronized (bidLock) {
+            if (bidBook == null) {
+                bidBook = BidBook.from(this);
+            }
+            return bidBook;
+        }
     }
 
+    public Optional<User> findRegisteredUser(User user) {
+        User resolved = resolveUser(user);
+        return registeredUsers.contains(resolved) ? Optional.of(resolved) : Optional.empty();
+    }
 
-    // Método para obtener el usuario que está en primer lugar
-    public Optional<User> getCurrentLeader() {
-        return getLeaderboard().stream()
-                .findFirst()
-                .map(entry -> registeredUsers.stream()
-                        .filter(user -> user.getUsername().equals(entry.getKey())) // Comparar por username
-                        .findFirst()
-                        .orElse(null));
+    // Las pujas del libro pueden venir de otra sesión: se usa la instancia administrada de esta subasta
+    private User resolveUser(User user) {
+        if (registeredUsers.contains(user) || user.getId() == null) {
+            return user;
+        }
+        synchronized (registeredUsers) {
+            return registeredUsers.stream()
+                    .filter(registered -> user.getId().equals(registered.getId()))
+                    .findFirst()
+                    .orElse(user);
+        }
     }
 
 
@@ -233,8 +267,7 @@ public class Auction {
                 article.setInAuction(false);
 
                 // Identificar el ganador (la puja más alta)
-                Optional<Bid> winningBid = bids.stream()
-                        .max(Comparator.comparing(Bid::getAmount));
+                Optional<Bid> winningBid = getBidBook().getHighestBid();
 
                 // Procesar la puja ganadora si existe
                 winningBid.ifPresent(this::processWinningBid);
@@ -250,14 +283,17 @@ public class Auction {
         if (status != AuctionStatus.FINISHED) {
             return null;
         }
-        return bids.stream()
-                .max(Comparator.comparing(Bid::getAmount))
-                .map(Bid::getUser)
+        return getBidBook().getLeader()
+                .map(this::resolveUser)
                 .orElse(null);
     }
 
     private void processWinningBid(Bid winningBid){
-        User winner = winningBid.getUser();
+        if (funds != null) {
+            funds.settle(this, winningBid);
+            return;
+        }
+        User winner = resolveUser(winningBid.getUser());
         double winningAmount = winningBid.getAmount();
 
         // Validar que el ganador tiene suficiente dinero real
@@ -276,33 +312,6 @@ public class Auction {
 
 
 
-    // Método para inicializar el ranking desde las pujas existentes
-    public void initializeBidRanking() {
-        synchronized(bidLock) {
-            // Limpiar el ranking actual
-            bidRanking.clear();
-
-            // Inicializar todos los usuarios registrados con 0
-            registeredUsers.forEach(user -> bidRanking.put(user.getUsername(), 0.0)); // Usar username
-
-            // Actualizar el ranking con la puja más alta de cada usuario
-            bids.stream()
-                    .collect(Collectors.groupingBy(
-                            bid -> bid.getUser().getUsername(), // Cambiar a username
-                            Collectors.maxBy(Comparator.comparing(Bid::getAmount))
-                    ))
-                    .forEach((username, maxBid) ->
-                            maxBid.ifPresent(bid -> bidRanking.put(username, bid.getAmount()))
-                    );
-        }
-    }
-
-
-    @PostLoad
-    private void onLoad() {
-        initializeBidRanking();
-    }
-
     @Override
     public String toString() {
         return "Auction{" +
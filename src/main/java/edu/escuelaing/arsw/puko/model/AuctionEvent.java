@@ -1,19 +1,12 @@
 package edu.escuelaing.arsw.puko.model;
 
-import lombok.Getter;
-import lombok.Setter;
+// Sobre de todos los eventos enviados a los clientes. El tipo del contenido es fijo por eventType
+// y "v" indica la versión del esquema, para que los clientes puedan ignorar lo que no entienden.
+public record AuctionEvent<T>(String eventType, T eventData, int v) {
 
-@Getter
-@Setter
-public class AuctionEvent {
-    private String eventType;
-    private Object eventData;
+    public static final int VERSION = 2;
 
-    public AuctionEvent(String eventType, Object eventData) {
-        this.eventType = eventType;
-        this.eventData = eventData;
+    public AuctionEvent(String eventType, T eventData) {
+        this(eventType, eventData, VERSION);
     }
-
-    // Getters y setters
 }
-
@@ -0,0 +1,36 @@
+package edu.escuelaing.arsw.puko.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+// Estado y horario de una subasta: lo que necesita el planificador para saber cuándo iniciarla o finalizarla
+public record AuctionTimeline(Long auctionId, Auction.AuctionStatus status, LocalDateTime startTime, Duration duration) {
+
+    public static AuctionTimeline of(Auction auction) {
+        return new AuctionTimeline(auction.getId(), auction.getStatus(), auction.getStartTime(), auction.getDuration());
+    }
+
+    public LocalDateTime endTime() {
+        return startTime.plus(duration);
+    }
+
+    public long endTimeMillis() {
+        return toEpochMillis(endTime());
+    }
+
+    // Próximo cambio de estado pendiente; las subastas finalizadas no tienen ninguno
+    public Optional<LocalDateTime> nextTransition() {
+        return switch (status) {
+            case SCHEDULED -> Optional.of(startTime);
+            case ACTIVE -> Optional.of(endTime());
+            case FINISHED -> Optional.empty();
+        };
+    }
+
+    // Los horarios se guardan en la zona del servidor; los plazos y los clientes trabajan en epoch millis
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
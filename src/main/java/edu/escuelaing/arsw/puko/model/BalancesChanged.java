@@ -0,0 +1,14 @@
+package edu.escuelaing.arsw.puko.model;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Usuarios cuyo saldo cambió en la transacción actual: se publica para invalidar lo que se tenga en memoria
+public record BalancesChanged(Set<Long> userIds) {
+
+    public static BalancesChanged of(Collection<Long> userIds) {
+        return new BalancesChanged(userIds.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet()));
+    }
+}
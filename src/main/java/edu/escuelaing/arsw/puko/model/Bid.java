@@ -8,6 +8,7 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_bid_auction_amount", columnList = "auction_id, amount"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,66 @@
+package edu.escuelaing.arsw.puko.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Libro de pujas en memoria: mantiene la puja más alta, el líder y el ranking de mejores pujas por usuario
+// sin recorrer el historial. Las escrituras llegan serializadas por el bidLock de la subasta.
+public class BidBook {
+
+    private volatile Bid highestBid;
+
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    // Libro inicial de una subasta sin pujas cargadas: solo sus usuarios registrados (en 0)
+    public static BidBook from(Auction auction) {
+        BidBook book = new BidBook();
+        Collection<User> registeredUsers = auction.getRegisteredUsers();
+        synchronized (registeredUsers) {
+            registeredUsers.forEach(book::register);
+        }
+        return book;
+    }
+
+    public void register(User user) {
+        register(user.getId(), user.getUsername());
+    }
+
+    public void register(long userId, String username) {
+        leaderboard.register(userId, username);
+    }
+
+    // Carga la mejor puja de un usuario ya calculada (p. ej. por una consulta agregada)
+    public void rank(long userId, String username, double amount) {
+        leaderboard.update(userId, username, amount);
+    }
+
+    public void accept(Bid bid) {
+        Bid current = highestBid;
+        if (current == null || bid.getAmount() > current.getAmount()) {
+            highestBid = bid;
+        }
+        User user = bid.getUser();
+        leaderboard.update(user.getId(), user.getUsername(), bid.getAmount());
+    }
+
+    public Optional<Bid> getHighestBid() {
+        return Optional.ofNullable(highestBid);
+    }
+
+    public Optional<User> getLeader() {
+        return getHighestBid().map(Bid::getUser);
+    }
+
+    public Optional<Double> getBestBid(long userId) {
+        return leaderboard.getAmount(userId);
+    }
+
+    public List<RankingEntry> getTopBids() {
+        return leaderboard.getTop();
+    }
+
+    public boolean isEmpty() {
+        return highestBid == null;
+    }
+}
@@ -0,0 +1,12 @@
+package edu.escuelaing.arsw.puko.model;
+
+// Movimientos de dinero de una subasta. Sin implementación asignada, la subasta modifica
+// directamente los saldos de las entidades User (comportamiento original).
+public interface BidFunds {
+
+    // Reserva el monto al postor y libera la reserva de la puja superada; false si no le alcanza
+    boolean hold(Auction auction, User bidder, double amount, Bid previousBid);
+
+    // Cobra la puja ganadora al ganador y la abona al creador
+    void settle(Auction auction, Bid winningBid);
+}
@@ -0,0 +1,7 @@
+package edu.escuelaing.arsw.puko.model;
+
+import java.util.Set;
+
+// Subastas con pujas aceptadas que la escritura diferida no pudo escribir: su libro en memoria quedó adelantado
+public record BidsDiscarded(Set<Long> auctionIds) {
+}
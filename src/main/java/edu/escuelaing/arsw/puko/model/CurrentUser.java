@@ -0,0 +1,16 @@
+package edu.escuelaing.arsw.puko.model;
+
+// Identidad del usuario de la petición: lo que necesitan los controladores sin cargar la entidad User
+public record CurrentUser(Long id, String email, String username) {
+
+    public static CurrentUser of(User user) {
+        return new CurrentUser(user.getId(), user.getEmail(), user.getUsername());
+    }
+
+    // Instancia transitoria con solo la identidad; los servicios que la reciben la resuelven por id
+    public User toUser() {
+        User user = new User(id, username, null);
+        user.setEmail(email);
+        return user;
+    }
+}
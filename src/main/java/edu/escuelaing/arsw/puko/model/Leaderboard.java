@@ -0,0 +1,74 @@
+package edu.escuelaing.arsw.puko.model;
+
+import java.util.*;
+
+// Ranking incremental de una subasta: conjunto ordenado más un índice por id de usuario.
+// Cada actualización cuesta O(log n) y el top se guarda como vista inmutable para lecturas sin ordenar.
+public class Leaderboard {
+
+    public static final int TOP_SIZE = 10;
+
+    private record Position(long userId, String username, double amount, long sequence) {
+    }
+
+    // Mayor monto primero; a igual monto, quien llegó antes
+    private static final Comparator<Position> ORDER = Comparator.comparingDouble(Position::amount).reversed()
+            .thenComparingLong(Position::sequence);
+
+    private final TreeSet<Position> ranking = new TreeSet<>(ORDER);
+
+    private final HashMap<Long, Position> byUser = new HashMap<>();
+
+    private long sequence;
+
+    private volatile List<RankingEntry> top = List.of();
+
+    public synchronized void register(long userId, String username) {
+        if (!byUser.containsKey(userId)) {
+            put(userId, username, 0.0);
+        }
+    }
+
+    // Solo sube la posición del usuario: el ranking guarda su mejor puja
+    public synchronized boolean update(long userId, String username, double amount) {
+        Position current = byUser.get(userId);
+        if (current != null && current.amount() >= amount) {
+            return false;
+        }
+        if (current != null) {
+            ranking.remove(current);
+        }
+        put(userId, username, amount);
+        return true;
+    }
+
+    public List<RankingEntry> getTop() {
+        return top;
+    }
+
+    public synchronized Optional<Double> getAmount(long userId) {
+        Position position = byUser.get(userId);
+        return position == null ? Optional.empty() : Optional.of(position.amount());
+    }
+
+    public synchronized int size() {
+        return byUser.size();
+    }
+
+    private void put(long userId, String username, double amount) {
+        Position position = new Position(userId, username, amount, sequence++);
+        ranking.add(position);
+        byUser.put(userId, position);
+        refreshTop();
+    }
+
+    private void refreshTop() {
+        List<RankingEntry> view = new ArrayList<>(TOP_SIZE);
+        Iterator<Position> iterator = ranking.iterator();
+        while (view.size() < TOP_SIZE && iterator.hasNext()) {
+            Position position = iterator.next();
+            view.add(new RankingEntry(position.userId(), position.username(), position.amount()));
+        }
+        top = List.copyOf(view);
+    }
+}
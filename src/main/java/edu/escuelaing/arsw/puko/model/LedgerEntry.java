@@ -0,0 +1,62 @@
+package edu.escuelaing.arsw.puko.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Movimiento de saldo de la billetera. Solo se agregan filas: el saldo de User es la suma de sus movimientos
+// sobre el saldo inicial. Se escriben en lotes JDBC desde WalletService.
+@Entity
+@Table(name = "wallet_ledger", indexes = {
+        @Index(name = "idx_wallet_ledger_user", columnList = "user_id, id")
+})
+@Getter
+@NoArgsConstructor
+public class LedgerEntry {
+
+    public enum Kind {
+        HOLD,          // reserva de la puja líder
+        RELEASE,       // reserva liberada al ser superada
+        PENDING_SALE,  // dinero temporal del creador por la puja líder
+        PAYMENT,       // cobro de la puja ganadora
+        SALE           // abono al creador de la puja ganadora
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private Long auctionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private double realDelta;
+
+    @Column(nullable = false)
+    private double temporaryDelta;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public LedgerEntry(Long userId, Long auctionId, Kind kind, double realDelta, double temporaryDelta) {
+        this.userId = userId;
+        this.auctionId = auctionId;
+        this.kind = kind;
+        this.realDelta = realDelta;
+        this.temporaryDelta = temporaryDelta;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Movimiento que deshace este (p. ej. al revertirse la transacción que lo originó)
+    public LedgerEntry reversed() {
+        return new LedgerEntry(userId, auctionId, kind, -realDelta, -temporaryDelta);
+    }
+}
@@ -0,0 +1,20 @@
+package edu.escuelaing.arsw.puko.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Posición del ranking que cambió: el cliente la reemplaza en su tablero sin volver a dibujarlo completo
+public record RankingChange(int position, long userId, String username, double amount) {
+
+    // Posiciones de "after" que difieren de "before"; el tamaño nuevo viaja aparte para recortar el tablero
+    public static List<RankingChange> diff(List<RankingEntry> before, List<RankingEntry> after) {
+        List<RankingChange> changes = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            RankingEntry entry = after.get(i);
+            if (i >= before.size() || !before.get(i).equals(entry)) {
+                changes.add(new RankingChange(i, entry.userId(), entry.username(), entry.amount()));
+            }
+        }
+        return changes;
+    }
+}
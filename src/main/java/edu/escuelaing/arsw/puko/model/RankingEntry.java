@@ -0,0 +1,5 @@
+package edu.escuelaing.arsw.puko.model;
+
+// Fila del ranking de una subasta: lleva todo lo necesario para responder sin consultar usuarios
+public record RankingEntry(long userId, String username, double amount) {
+}
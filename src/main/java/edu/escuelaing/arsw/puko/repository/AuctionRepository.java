@@ -1,8 +1,11 @@
 package edu.escuelaing.arsw.puko.repository;
 
+import edu.escuelaing.arsw.puko.dto.AuctionSummaryDTO;
 import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
 import edu.escuelaing.arsw.puko.model.User;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -16,19 +19,6 @@ import java.util.Optional;
 @Repository
 public interface AuctionRepository extends JpaRepository<Auction, Long> {
 
-    // Buscar por estado
-    List<Auction> findByStatus(Auction.AuctionStatus status);
-
-    @Query("SELECT a FROM Auction a WHERE a.status = 'ACTIVE' OR a.status = 'SCHEDULED'")
-    List<Auction> findAvailableAuctions();
-
-    // Buscar subastas por creador
-    List<Auction> findByCreator(User creator);
-
-    // Buscar subastas en las que un usuario está registrado
-    @Query("SELECT a FROM Auction a JOIN a.registeredUsers u WHERE u = :user")
-    List<Auction> findByRegisteredUser(@Param("user") User user);
-
     // Buscar subastas por rango de precio inicial del artículo
     @Query("SELECT a FROM Auction a WHERE a.article.initialPrice BETWEEN :minPrice AND :maxPrice")
     List<Auction> findByArticlePriceRange(@Param("minPrice") double minPrice, @Param("maxPrice") double maxPrice);
@@ -43,14 +33,62 @@ public interface AuctionRepository extends JpaRepository<Auction, Long> {
     @Query("SELECT COUNT(a) FROM Auction a WHERE a.creator = :user AND a.status = 'ACTIVE'")
     long countActiveAuctionsByUser(@Param("user") User user);
 
-    // Buscar subastas que coincidan con un término de búsqueda en el nombre del artículo
-    @Query("SELECT a FROM Auction a WHERE LOWER(a.article.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Auction> searchByArticleName(@Param("searchTerm") String searchTerm);
-
     // Buscar subastas próximas a empezar en las próximas N horas
     @Query("SELECT a FROM Auction a WHERE a.status = 'SCHEDULED' AND a.startTime BETWEEN :now AND :future")
     List<Auction> findUpcomingAuctions(@Param("now") LocalDateTime now, @Param("future") LocalDateTime future);
 
+    // Solo el id del creador, para autorizar sin cargar la subasta
+    @Query("SELECT a.creator.id FROM Auction a WHERE a.id = :id")
+    Optional<Long> findCreatorIdById(@Param("id") Long id);
+
+    // Listados: una sola consulta arma cada fila y la puja más alta sale de un agregado sobre bid
+    String SUMMARY_SELECT = "SELECT new edu.escuelaing.arsw.puko.dto.AuctionSummaryDTO(" +
+            "a.id, ar.id, ar.name, a.creator.id, a.duration, a.startTime, a.status, " +
+            "(SELECT MAX(b.amount) FROM Bid b WHERE b.auction.id = a.id)) " +
+            "FROM Auction a JOIN a.article ar ";
+
+    // Paginación por keyset sobre (startTime, id): cada página cuesta lo mismo sin importar su profundidad
+    String AFTER_CURSOR = " AND (a.startTime > :afterStart OR (a.startTime = :afterStart AND a.id > :afterId))" +
+            " ORDER BY a.startTime, a.id";
+
+    @Query(SUMMARY_SELECT + "WHERE a.status = :status" + AFTER_CURSOR)
+    List<AuctionSummaryDTO> findSummariesByStatus(@Param("status") Auction.AuctionStatus status,
+                                                  @Param("afterStart") LocalDateTime afterStart,
+                                                  @Param("afterId") long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE a.status IN ('ACTIVE', 'SCHEDULED')" + AFTER_CURSOR)
+    List<AuctionSummaryDTO> findAvailableSummaries(@Param("afterStart") LocalDateTime afterStart,
+                                                   @Param("afterId") long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE a.creator.id = :creatorId" + AFTER_CURSOR)
+    List<AuctionSummaryDTO> findSummariesByCreatorId(@Param("creatorId") Long creatorId,
+                                                     @Param("afterStart") LocalDateTime afterStart,
+                                                     @Param("afterId") long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "JOIN a.registeredUsers u WHERE u.id = :userId" + AFTER_CURSOR)
+    List<AuctionSummaryDTO> findSummariesByRegisteredUserId(@Param("userId") Long userId,
+                                                            @Param("afterStart") LocalDateTime afterStart,
+                                                            @Param("afterId") long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE LOWER(ar.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))" + AFTER_CURSOR)
+    List<AuctionSummaryDTO> searchSummariesByArticleName(@Param("searchTerm") String searchTerm,
+                                                         @Param("afterStart") LocalDateTime afterStart,
+                                                         @Param("afterId") long afterId, Limit limit);
+
+    // Usuarios registrados (id y nombre) sin inicializar la colección de la subasta
+    @Query("SELECT u.id AS userId, u.username AS username FROM Auction a JOIN a.registeredUsers u WHERE a.id = :auctionId")
+    List<RegisteredUser> findRegisteredUsersById(@Param("auctionId") Long auctionId);
+
+    interface RegisteredUser {
+        Long getUserId();
+        String getUsername();
+    }
+
+    // Horarios de las subastas que aún tienen un cambio de estado pendiente (se lee una vez al arrancar)
+    @Query("SELECT new edu.escuelaing.arsw.puko.model.AuctionTimeline(a.id, a.status, a.startTime, a.duration) " +
+            "FROM Auction a WHERE a.status IN ('SCHEDULED', 'ACTIVE')")
+    List<AuctionTimeline> findOpenTimelines();
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT a FROM Auction a WHERE a.id = :auctionId")
     Optional<Auction> findAuctionForUpdate(@Param("auctionId") Long auctionId);
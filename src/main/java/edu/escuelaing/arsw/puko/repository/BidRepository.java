@@ -0,0 +1,30 @@
+package edu.escuelaing.arsw.puko.repository;
+
+import edu.escuelaing.arsw.puko.model.Bid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BidRepository extends JpaRepository<Bid, Long> {
+
+    // Proyección con la mejor puja de cada usuario en una subasta
+    interface BestBid {
+        Long getUserId();
+        String getUsername();
+        Double getAmount();
+    }
+
+    // Puja más alta de la subasta (la primera en llegar si hay empate)
+    Optional<Bid> findFirstByAuctionIdOrderByAmountDescIdAsc(Long auctionId);
+
+    // Mejor puja por usuario, calculada en la base de datos en lugar de cargar el historial
+    @Query("SELECT u.id AS userId, u.username AS username, MAX(b.amount) AS amount " +
+            "FROM Bid b JOIN b.user u WHERE b.auction.id = :auctionId " +
+            "GROUP BY u.id, u.username ORDER BY MAX(b.amount) DESC, MIN(b.id) ASC")
+    List<BestBid> findBestBidsByAuctionId(@Param("auctionId") Long auctionId);
+}
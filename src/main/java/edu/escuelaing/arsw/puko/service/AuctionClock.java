@@ -0,0 +1,98 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.dto.EventEndTimeDTO;
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reloj de las subastas activas, en memoria. Con end-time-events publica el instante de cierre una vez
+// (y cuando cambia) más balizas de resincronización; si no, conserva el REMAINING_TIME de cada segundo.
+// En ambos casos no se consulta la base de datos ni se abre una transacción para publicar.
+@Component
+public class AuctionClock {
+
+    public static final String AUCTION_END_TIME = "AUCTION_END_TIME";
+    private static final String REMAINING_TIME = "REMAINING_TIME";
+
+    private final AuctionEventPublisher auctionEventPublisher;
+
+    private final AuctionRepository auctionRepository;
+
+    private final boolean endTimeEvents;
+
+    private final ConcurrentHashMap<Long, Long> endTimes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AuctionClock(AuctionEventPublisher auctionEventPublisher, AuctionRepository auctionRepository,
+                        @Value("${puko.auctions.clock.end-time-events:false}") boolean endTimeEvents) {
+        this.auctionEventPublisher = auctionEventPublisher;
+        this.auctionRepository = auctionRepository;
+        this.endTimeEvents = endTimeEvents;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        auctionRepository.findOpenTimelines().stream()
+                .filter(timeline -> timeline.status() == Auction.AuctionStatus.ACTIVE)
+                .forEach(timeline -> endTimes.put(timeline.auctionId(), timeline.endTimeMillis()));
+    }
+
+    // Se recibe tras el commit, así la publicación nunca ocurre dentro de una transacción
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimelineChanged(AuctionTimeline timeline) {
+        Long auctionId = timeline.auctionId();
+        if (timeline.status() == Auction.AuctionStatus.ACTIVE) {
+            long endTime = timeline.endTimeMillis();
+            Long previous = endTimes.put(auctionId, endTime);
+            if (previous == null || previous != endTime) {
+                publishEndTime(auctionId, endTime);
+            }
+            return;
+        }
+        Long previous = endTimes.remove(auctionId);
+        if (previous != null) {
+            // Cierre anticipado: se informa el nuevo fin para que el contador se detenga
+            publishEndTime(auctionId, Math.min(previous, System.currentTimeMillis()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${puko.auctions.clock.beacon-interval-ms:30000}")
+    public void publishBeacons() {
+        if (endTimeEvents) {
+            endTimes.forEach(this::publishEndTime);
+        }
+    }
+
+    @Scheduled(fixedRate = 1000) // Publicar cada segundo
+    public void publishRemainingTimes() {
+        if (endTimeEvents) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Long> entry : endTimes.entrySet()) {
+            long remainingSeconds = Math.max(0, entry.getValue() - now) / 1000;
+            auctionEventPublisher.publishRemainingTimeEvent(entry.getKey(), REMAINING_TIME, remainingSeconds);
+        }
+    }
+
+    public int activeAuctions() {
+        return endTimes.size();
+    }
+
+    private void publishEndTime(Long auctionId, long endTime) {
+        if (endTimeEvents) {
+            auctionEventPublisher.publishTimeEvent(auctionId, AUCTION_END_TIME,
+                    new EventEndTimeDTO(auctionId, endTime, System.currentTimeMillis()));
+        }
+    }
+}
@@ -1,51 +1,65 @@
 package edu.escuelaing.arsw.puko.service;
 
-import com.azure.messaging.webpubsub.WebPubSubServiceClient;
-import com.azure.messaging.webpubsub.WebPubSubServiceClientBuilder;
-import com.azure.messaging.webpubsub.models.WebPubSubContentType;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import edu.escuelaing.arsw.puko.exception.EventPublisherException;
 import edu.escuelaing.arsw.puko.model.AuctionEvent;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuctionEventPublisher {
-    private final WebPubSubServiceClient webPubSubClient;
 
+    // Grupo paralelo con los mismos eventos en CBOR, para los clientes que lo negocian
+    public static final String BINARY_GROUP_SUFFIX = "-bin";
 
+    private static final String AUCTION_FINALIZED = "AUCTION_FINALIZED";
 
-    public AuctionEventPublisher(@Value("${webpubsub.connection-string}") String connectionString) {
-        this.webPubSubClient = new WebPubSubServiceClientBuilder()
-                .connectionString(connectionString)
-                .hub("puko")
-                .buildClient();
-    }
+    private final EventDispatcher eventDispatcher;
+
+    private final EventSerializer eventSerializer;
 
+    private final ContentVersions contentVersions;
 
+    private final boolean binaryEvents;
+
+    // El evento se serializa al publicarlo; el envío lo hace el dispatcher después del commit
+    @Autowired
+    public AuctionEventPublisher(EventDispatcher eventDispatcher, EventSerializer eventSerializer,
+                                 ContentVersions contentVersions,
+                                 @Value("${puko.events.binary.enabled:false}") boolean binaryEvents) {
+        this.eventDispatcher = eventDispatcher;
+        this.eventSerializer = eventSerializer;
+        this.contentVersions = contentVersions;
+        this.binaryEvents = binaryEvents;
+    }
 
-    public void publishAuctionEvent(Long auctionId, String eventType, Object eventData) {
-        AuctionEvent event = new AuctionEvent(eventType, eventData);
-        webPubSubClient.sendToGroup("auction-" + auctionId, serializeEvent(event), WebPubSubContentType.APPLICATION_JSON);
+    // Cada evento de una subasta o del catálogo invalida las respuestas cacheadas correspondientes
+    public <T> void publishAuctionEvent(Long auctionId, String eventType, T eventData) {
+        if (AUCTION_FINALIZED.equals(eventType)) {
+            EventDispatcher.runAfterCommit(() -> contentVersions.auctionFinished(auctionId));
+        } else {
+            EventDispatcher.runAfterCommit(() -> contentVersions.auctionChanged(auctionId));
+        }
+        publish("auction-" + auctionId, new AuctionEvent<>(eventType, eventData));
     }
 
-    public void publishAuctionAvailableEvent(String eventType, Object eventData) {
-        AuctionEvent event = new AuctionEvent(eventType, eventData);
-        webPubSubClient.sendToGroup("auctions", serializeEvent(event), WebPubSubContentType.APPLICATION_JSON);
+    public <T> void publishAuctionAvailableEvent(String eventType, T eventData) {
+        EventDispatcher.runAfterCommit(contentVersions::catalogChanged);
+        publish("auctions", new AuctionEvent<>(eventType, eventData));
     }
 
     public void publishRemainingTimeEvent(Long auctionId, String eventType, Long remainingTime) {
-        AuctionEvent event = new AuctionEvent(eventType, remainingTime);
-        webPubSubClient.sendToGroup("auction-" + auctionId + "-time", serializeEvent(event), WebPubSubContentType.APPLICATION_JSON);
+        publish("auction-" + auctionId + "-time", new AuctionEvent<>(eventType, remainingTime));
+    }
+
+    public <T> void publishTimeEvent(Long auctionId, String eventType, T eventData) {
+        publish("auction-" + auctionId + "-time", new AuctionEvent<>(eventType, eventData));
     }
 
-    // Método para serializar el evento a JSON
-    private String serializeEvent(AuctionEvent event) {
-        try {
-            return new ObjectMapper().writeValueAsString(event);
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-            throw new EventPublisherException("Error serializing AuctionEvent");
+    private void publish(String group, AuctionEvent<?> event) {
+        eventDispatcher.dispatch(group, eventSerializer.serialize(event, EventEncoding.JSON), EventEncoding.JSON);
+        if (binaryEvents) {
+            eventDispatcher.dispatch(group + BINARY_GROUP_SUFFIX, eventSerializer.serialize(event, EventEncoding.CBOR),
+                    EventEncoding.CBOR);
         }
     }
 }
-
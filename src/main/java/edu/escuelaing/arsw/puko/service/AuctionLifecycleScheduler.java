@@ -0,0 +1,130 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Planificador del ciclo de vida de las subastas: mantiene en memoria el próximo inicio o cierre de cada una
+// y lo ejecuta al vencer, en lugar de consultar la tabla cada segundo.
+@Component
+public class AuctionLifecycleScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionLifecycleScheduler.class);
+
+    private final AuctionService auctionService;
+
+    private final AuctionRepository auctionRepository;
+
+    private final long retryDelayMillis;
+
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+
+    // Último plazo de cada subasta: al reprogramar, el anterior queda en la cola pero se ignora al vencer
+    private final ConcurrentHashMap<Long, Deadline> current = new ConcurrentHashMap<>();
+
+    private volatile Thread worker;
+
+    @Autowired
+    public AuctionLifecycleScheduler(AuctionService auctionService, AuctionRepository auctionRepository,
+                                     @Value("${puko.auctions.lifecycle.retry-delay-ms:5000}") long retryDelayMillis) {
+        this.auctionService = auctionService;
+        this.auctionRepository = auctionRepository;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Única lectura de la tabla: los plazos ya vencidos se ejecutan de inmediato
+        auctionRepository.findOpenTimelines().forEach(this::schedule);
+        Thread thread = new Thread(this::run, "auction-lifecycle");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    // Se recibe tras el commit de cada cambio de estado u horario hecho por AuctionService
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimelineChanged(AuctionTimeline timeline) {
+        schedule(timeline);
+    }
+
+    public void schedule(AuctionTimeline timeline) {
+        timeline.nextTransition().ifPresentOrElse(
+                dueAt -> enqueue(new Deadline(timeline.auctionId(), timeline.status(), AuctionTimeline.toEpochMillis(dueAt))),
+                () -> current.remove(timeline.auctionId()));
+    }
+
+    public int pendingDeadlines() {
+        return current.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void enqueue(Deadline deadline) {
+        current.put(deadline.auctionId(), deadline);
+        deadlines.put(deadline);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Deadline deadline;
+            try {
+                deadline = deadlines.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (current.get(deadline.auctionId()) == deadline) {
+                fire(deadline);
+            }
+        }
+    }
+
+    private void fire(Deadline deadline) {
+        try {
+            // Cada transición vuelve a validar estado y hora, y publica el siguiente plazo si lo hay
+            if (deadline.status() == Auction.AuctionStatus.SCHEDULED) {
+                auctionService.activateIfDue(deadline.auctionId());
+            } else {
+                auctionService.finalizeIfDue(deadline.auctionId());
+            }
+            current.remove(deadline.auctionId(), deadline);
+        } catch (Exception e) {
+            logger.error("Could not process {} deadline of auction {}", deadline.status(), deadline.auctionId(), e);
+            enqueue(new Deadline(deadline.auctionId(), deadline.status(), System.currentTimeMillis() + retryDelayMillis));
+        }
+    }
+
+    private record Deadline(Long auctionId, Auction.AuctionStatus status, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Deadline) other).dueAtMillis);
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package edu.escuelaing.arsw.puko.service;
 
 import edu.escuelaing.arsw.puko.dto.AuctionDTO;
-import edu.escuelaing.arsw.puko.dto.EventBidDTO;
+import edu.escuelaing.arsw.puko.dto.AuctionSummaryDTO;
+import edu.escuelaing.arsw.puko.dto.CursorPageDTO;
+import edu.escuelaing.arsw.puko.dto.EventWinnerDTO;
+import edu.escuelaing.arsw.puko.dto.PageCursor;
+import edu.escuelaing.arsw.puko.dto.RankingSnapshotDTO;
 import edu.escuelaing.arsw.puko.exception.AuctionException;
 import edu.escuelaing.arsw.puko.exception.AuctionNotFoundException;
 import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.Bid;
+import edu.escuelaing.arsw.puko.model.BidBook;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import edu.escuelaing.arsw.puko.repository.BidRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -27,16 +40,37 @@ public class AuctionService {
 
     private AuctionEventPublisher auctionEventPublisher;
 
+    private BidBookRegistry bidBookRegistry;
+
+    private BidRepository bidRepository;
+
+    private BidWriteBehind bidWriteBehind;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private BidEventCoalescer bidEventCoalescer;
+
+    private WalletService walletService;
+
     @Autowired
-    public AuctionService(AuctionRepository auctionRepository, AuctionEventPublisher auctionEventPublisher) {
+    public AuctionService(AuctionRepository auctionRepository, AuctionEventPublisher auctionEventPublisher,
+                          BidBookRegistry bidBookRegistry, BidRepository bidRepository, BidWriteBehind bidWriteBehind,
+                          ApplicationEventPublisher applicationEventPublisher, BidEventCoalescer bidEventCoalescer,
+                          WalletService walletService) {
         this.auctionRepository = auctionRepository;
         this.auctionEventPublisher = auctionEventPublisher;
+        this.bidBookRegistry = bidBookRegistry;
+        this.bidRepository = bidRepository;
+        this.bidWriteBehind = bidWriteBehind;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.bidEventCoalescer = bidEventCoalescer;
+        this.walletService = walletService;
     }
 
     @Transactional
     public Auction save(Auction auction) {
         Auction savedAuction = auctionRepository.save(auction);
-        savedAuction.initializeBidRanking();
+        publishTimeline(savedAuction);
         auctionEventPublisher.publishAuctionAvailableEvent("AUCTION_CREATED", AuctionDTO.fromAuction(savedAuction));
         return savedAuction;
     }
@@ -46,9 +80,9 @@ public class AuctionService {
         Optional<Auction> auctionOpt = findById(auctionId);
         if (auctionOpt.isPresent()) {
             Auction auction = auctionOpt.get();
+            bidBookRegistry.attach(auction);
             boolean registered = auction.registerUser(user);
             if (registered) {
-                auction.initializeBidRanking();
                 auctionRepository.save(auction);
                 auctionEventPublisher.publishAuctionEvent(auction.getId(), "USER_REGISTERED", auction.getTopBids());
             }
@@ -57,42 +91,70 @@ public class AuctionService {
         return false;
     }
 
+    // También lo invoca la cola de BidSequencer. El lock de la fila se conserva: la cola solo ordena las pujas
+    // de este proceso, no las de otros nodos ni la finalización que corre en otro hilo
     @Transactional
     public boolean placeBid(Long auctionId, User user, double amount) {
         try{
+            bidWriteBehind.holdFlush();
             Optional<Auction> auctionOpt = Optional.of(auctionRepository.findAuctionForUpdate(auctionId).orElseThrow());
 
             Auction auction = auctionOpt.get();
             if (auction.getStatus() != Auction.AuctionStatus.ACTIVE) {
                 return false;
             }
+            BidBook bidBook = bidBookRegistry.attach(auction);
+            Bid previousBid = bidBook.getHighestBid().orElse(null);
+            useWallet(auction);
+            if (!walletService.isEnabled() && bidWriteBehind.isEnabled()) {
+                bidWriteBehind.applyPending(auction, user, previousBid);
+            }
             boolean bidPlaced = auction.placeBid(user, amount);
             if (bidPlaced) {
-                auctionRepository.save(auction);
-                auction.initializeBidRanking();
-
-                auctionRepository.save(auction);
-
-                auctionEventPublisher.publishAuctionEvent(auction.getId(), "BID_PLACED", amount);
-                auctionEventPublisher.publishAuctionAvailableEvent("NEW_TOP_BID", new EventBidDTO(auction.getId(), amount));
-                auctionEventPublisher.publishAuctionEvent(auction.getId(), "RANKING_UPDATED", auction.getTopBids());
+                // Solo se escribe la puja nueva y los saldos afectados, no la subasta completa
+                Bid acceptedBid = bidBook.getHighestBid().orElseThrow();
+                if (bidWriteBehind.isEnabled() && walletService.isEnabled()) {
+                    bidWriteBehind.deferBid(acceptedBid);
+                } else if (bidWriteBehind.isEnabled()) {
+                    bidWriteBehind.defer(auction, acceptedBid, previousBid);
+                } else {
+                    bidRepository.save(acceptedBid);
+                }
+
+                bidEventCoalescer.offer(auction.getId(), amount, acceptedBid.getUser().getUsername(), bidBook.getTopBids());
+                applicationEventPublisher.publishEvent(BalancesChanged.of(Arrays.asList(acceptedBid.getUser().getId(),
+                        auction.getCreator().getId(), previousBid == null ? null : previousBid.getUser().getId())));
             }
             return bidPlaced;
         }catch (Exception e){
+            // El libro pudo quedar adelantado respecto a la base de datos
+            bidBookRegistry.evict(auctionId);
+            // La transacción no debe confirmarse: la billetera deshace así la reserva de una puja que no quedó
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            }
             return false;
         }
     }
 
     @Transactional(readOnly = true)
-    public List<Map.Entry<String, Double>> getTopBids(Long auctionId) {
+    public List<RankingEntry> getTopBids(Long auctionId) {
+        // El ranking de las subastas en curso se sirve desde memoria sin cargar la subasta
+        Optional<BidBook> cached = bidBookRegistry.find(auctionId);
+        if (cached.isPresent()) {
+            return cached.get().getTopBids();
+        }
         return findById(auctionId)
-                .map(auction -> {
-                    auction.initializeBidRanking();
-                    return auction.getTopBids();
-                })
+                .map(auction -> bidBookRegistry.attach(auction).getTopBids())
                 .orElse(Collections.emptyList());
     }
 
+    // Punto de partida para aplicar los deltas de BID_UPDATE (al suscribirse o al detectar un salto de secuencia)
+    @Transactional(readOnly = true)
+    public RankingSnapshotDTO getRankingSnapshot(Long auctionId) {
+        return bidEventCoalescer.snapshot(auctionId, () -> getTopBids(auctionId));
+    }
+
     @Transactional(readOnly = true)
     public Duration getRemainingTime(Long auctionId) {
         return findById(auctionId)
@@ -100,42 +162,67 @@ public class AuctionService {
                 .orElse(Duration.ZERO);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Long> findCreatorId(Long auctionId) {
+        return auctionRepository.findCreatorIdById(auctionId);
+    }
+
     @Transactional(readOnly = true)
     public Optional<Auction> findById(Long id) {
         Optional<Auction> auctionOpt = auctionRepository.findById(id);
-        auctionOpt.ifPresent(Auction::initializeBidRanking);
+        auctionOpt.ifPresent(bidBookRegistry::attach);
         return auctionOpt;
     }
 
     @Transactional(readOnly = true)
-    public List<Auction> findActiveAuctions() {
-        List<Auction> auctions = auctionRepository.findByStatus(Auction.AuctionStatus.ACTIVE);
-        auctions.forEach(Auction::initializeBidRanking);
-        return auctions;
+    public CursorPageDTO<AuctionSummaryDTO> findActiveAuctionSummaries(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPageDTO.pageSize(size);
+        return summaryPage(auctionRepository.findSummariesByStatus(Auction.AuctionStatus.ACTIVE,
+                after.startTime(), after.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AuctionSummaryDTO> findAvailableAuctionSummaries(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPageDTO.pageSize(size);
+        return summaryPage(auctionRepository.findAvailableSummaries(
+                after.startTime(), after.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AuctionSummaryDTO> findAuctionSummariesByCreator(User creator, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPageDTO.pageSize(size);
+        return summaryPage(auctionRepository.findSummariesByCreatorId(creator.getId(),
+                after.startTime(), after.id(), Limit.of(pageSize + 1)), pageSize);
     }
 
     @Transactional(readOnly = true)
-    public List<Auction> findByCreator(User creator) {
-        List<Auction> auctions = auctionRepository.findByCreator(creator);
-        auctions.forEach(Auction::initializeBidRanking);
-        return auctions;
+    public CursorPageDTO<AuctionSummaryDTO> findAuctionSummariesByRegisteredUser(User user, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPageDTO.pageSize(size);
+        return summaryPage(auctionRepository.findSummariesByRegisteredUserId(user.getId(),
+                after.startTime(), after.id(), Limit.of(pageSize + 1)), pageSize);
     }
 
     @Transactional(readOnly = true)
-    public List<Auction> findByRegisteredUser(User user) {
-        List<Auction> auctions = auctionRepository.findByRegisteredUser(user);
-        auctions.forEach(Auction::initializeBidRanking);
-        return auctions;
+    public CursorPageDTO<AuctionSummaryDTO> searchAuctionSummaries(String term, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPageDTO.pageSize(size);
+        return summaryPage(auctionRepository.searchSummariesByArticleName(term,
+                after.startTime(), after.id(), Limit.of(pageSize + 1)), pageSize);
     }
 
     @Transactional
     public boolean startAuction(Long auctionId) {
         Auction auction = auctionRepository.findById(auctionId)
                 .orElseThrow(() -> new AuctionNotFoundException(auctionId));
-        auction.initializeBidRanking();
         boolean started = auction.startAuction();
         if (started) {
+            bidBookRegistry.rebuild(auction);
             auctionRepository.save(auction);
+            publishTimeline(auction);
             auctionEventPublisher.publishAuctionEvent(auction.getId(), AUCTION_STARTED, null);
             auctionEventPublisher.publishAuctionAvailableEvent(AUCTION_STARTED, auction.getId());
         }
@@ -144,27 +231,24 @@ public class AuctionService {
 
     @Transactional
     public void finalizeAuction(Long auctionId) throws AuctionException {
+        bidWriteBehind.holdFlush();
         Auction auction = auctionRepository.findById(auctionId)
                 .orElseThrow(() -> new AuctionNotFoundException(auctionId));
+        bidBookRegistry.attach(auction);
+        useWallet(auction);
         auction.finalizeAuction();
-        auction.initializeBidRanking();
+        bidBookRegistry.evict(auctionId);
+        publishBalancesChanged(auction);
         auctionRepository.save(auction);
-        auctionEventPublisher.publishAuctionEvent(auction.getId(), AUCTION_FINALIZED, auction.getWinner());
+        publishTimeline(auction);
+        auctionEventPublisher.publishAuctionEvent(auction.getId(), AUCTION_FINALIZED, EventWinnerDTO.of(auction.getWinner()));
         auctionEventPublisher.publishAuctionAvailableEvent(AUCTION_FINALIZED, auction.getId());
     }
 
-    @Transactional(readOnly = true)
-    public List<Auction> findAvailableAuctions() {
-        List<Auction> auctions = auctionRepository.findAvailableAuctions();
-        auctions.forEach(Auction::initializeBidRanking);
-        return auctions;
-    }
-
     @Transactional(readOnly = true)
     public Set<User> getRegisteredUsers(Long auctionId) {
         Auction auction = auctionRepository.findById(auctionId)
                 .orElseThrow(() -> new AuctionNotFoundException(auctionId));
-        auction.initializeBidRanking();
         return auction.getRegisteredUsers();
     }
 
@@ -172,54 +256,83 @@ public class AuctionService {
     public User getWinner(Long auctionId) {
         Auction auction = auctionRepository.findById(auctionId)
                 .orElseThrow(() -> new AuctionNotFoundException(auctionId));
-        auction.initializeBidRanking();
+        bidBookRegistry.attach(auction);
         return auction.getWinner();
     }
 
-    @Scheduled(fixedRate = 1000) // Publicar cada segundo
-    @Transactional
-    public void publishRemainingTimeForActiveAuctions() {
-        // Obtener todas las subastas activas
-        List<Auction> activeAuctions = auctionRepository.findByStatus(Auction.AuctionStatus.ACTIVE);
-
-        for (Auction auction : activeAuctions) {
-            auction.initializeBidRanking();  // Inicializa la clasificación de las pujas
-
-            // Obtener el tiempo restante
-            Duration remainingTime = auction.getRemainingTime();
-
-            auctionEventPublisher.publishRemainingTimeEvent(auction.getId(), "REMAINING_TIME", remainingTime.toSeconds());
+    private CursorPageDTO<AuctionSummaryDTO> summaryPage(List<AuctionSummaryDTO> rows, int pageSize) {
+        CursorPageDTO<AuctionSummaryDTO> page = CursorPageDTO.of(rows, pageSize,
+                summary -> PageCursor.after(LocalDateTime.parse(summary.getStartTime()), summary.getId()));
+        // Las pujas aceptadas que aún no se escriben solo están en el libro en memoria de la subasta
+        for (AuctionSummaryDTO summary : page.getItems()) {
+            bidBookRegistry.find(summary.getId())
+                    .flatMap(BidBook::getHighestBid)
+                    .ifPresent(bid -> summary.setTopBid(bid.getAmount()));
         }
+        return page;
     }
 
+    // Invocado por AuctionLifecycleScheduler al vencer el inicio programado
+    @Transactional
+    public void activateIfDue(Long auctionId) {
+        Optional<Auction> auctionOpt = auctionRepository.findById(auctionId);
+        if (auctionOpt.isEmpty() || auctionOpt.get().getStatus() != Auction.AuctionStatus.SCHEDULED) {
+            return;
+        }
+        Auction auction = auctionOpt.get();
+        if (LocalDateTime.now().isBefore(auction.getStartTime())) {
+            // El horario cambió después de programar el plazo
+            publishTimeline(auction);
+            return;
+        }
+        auction.setStatus(Auction.AuctionStatus.ACTIVE);
+        bidBookRegistry.rebuild(auction);
+        auctionRepository.save(auction);
+        publishTimeline(auction);
+        auctionEventPublisher.publishAuctionEvent(auction.getId(), AUCTION_STARTED, null);
+        auctionEventPublisher.publishAuctionAvailableEvent(AUCTION_STARTED, auction.getId());
+    }
 
-    @Scheduled(fixedRate = 1000)
+    // Invocado por AuctionLifecycleScheduler al vencer el cierre de una subasta activa
     @Transactional
-    public void updateAuctionStatuses() throws AuctionException {
-        LocalDateTime now = LocalDateTime.now();
-
-        // Activar subastas programadas
-        List<Auction> scheduledAuctions = auctionRepository.findByStatus(Auction.AuctionStatus.SCHEDULED);
-        for (Auction auction : scheduledAuctions) {
-            auction.initializeBidRanking();
-            if (now.isAfter(auction.getStartTime())) {
-                auction.setStatus(Auction.AuctionStatus.ACTIVE);
-                auctionRepository.save(auction);
-                auctionEventPublisher.publishAuctionEvent(auction.getId(), AUCTION_STARTED, null);
-                auctionEventPublisher.publishAuctionAvailableEvent(AUCTION_STARTED, auction.getId());
-            }
+    public void finalizeIfDue(Long auctionId) throws AuctionException {
+        bidWriteBehind.holdFlush();
+        Optional<Auction> auctionOpt = auctionRepository.findById(auctionId);
+        if (auctionOpt.isEmpty() || auctionOpt.get().getStatus() != Auction.AuctionStatus.ACTIVE) {
+            return;
+        }
+        Auction auction = auctionOpt.get();
+        if (LocalDateTime.now().isBefore(auction.getStartTime().plus(auction.getDuration()))) {
+            publishTimeline(auction);
+            return;
         }
+        bidBookRegistry.attach(auction);
+        useWallet(auction);
+        auction.finalizeAuction();
+        bidBookRegistry.evict(auction.getId());
+        publishBalancesChanged(auction);
+        auctionRepository.save(auction);
+        publishTimeline(auction);
+        auctionEventPublisher.publishAuctionEvent(auction.getId(), AUCTION_FINALIZED, EventWinnerDTO.of(auction.getWinner()));
+        auctionEventPublisher.publishAuctionAvailableEvent(AUCTION_FINALIZED, auction.getId());
+    }
 
-        // Finalizar subastas activas
-        List<Auction> activeAuctions = auctionRepository.findByStatus(Auction.AuctionStatus.ACTIVE);
-        for (Auction auction : activeAuctions) {
-            auction.initializeBidRanking();
-            if (now.isAfter(auction.getStartTime().plus(auction.getDuration()))) {
-                auction.finalizeAuction();
-                auctionRepository.save(auction);
-                auctionEventPublisher.publishAuctionEvent(auction.getId(), AUCTION_FINALIZED, auction.getWinner());
-                auctionEventPublisher.publishAuctionAvailableEvent(AUCTION_FINALIZED, auction.getId());
-            }
+    // El cobro al ganador y el abono al creador cambian sus saldos
+    private void publishBalancesChanged(Auction auction) {
+        User winner = auction.getWinner();
+        applicationEventPublisher.publishEvent(BalancesChanged.of(Arrays.asList(auction.getCreator().getId(),
+                winner == null ? null : winner.getId())));
+    }
+
+    // Con la billetera los saldos se reservan y cobran en memoria, sin tocar las entidades User
+    private void useWallet(Auction auction) {
+        if (walletService.isEnabled()) {
+            auction.setFunds(walletService);
         }
     }
-}
\ No newline at end of file
+
+    // El planificador recibe el nuevo horario cuando la transacción confirma
+    private void publishTimeline(Auction auction) {
+        applicationEventPublisher.publishEvent(AuctionTimeline.of(auction));
+    }
+}
@@ -0,0 +1,93 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.BidBook;
+import edu.escuelaing.arsw.puko.model.BidsDiscarded;
+import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import edu.escuelaing.arsw.puko.repository.BidRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Conserva el libro de pujas de cada subasta abierta entre peticiones, para no reconstruirlo en cada carga
+@Component
+public class BidBookRegistry {
+
+    private final ConcurrentHashMap<Long, BidBook> books = new ConcurrentHashMap<>();
+
+    private final BidWriteBehind bidWriteBehind;
+
+    private final BidRepository bidRepository;
+
+    private final AuctionRepository auctionRepository;
+
+    @Autowired
+    public BidBookRegistry(BidWriteBehind bidWriteBehind, BidRepository bidRepository, AuctionRepository auctionRepository) {
+        this.bidWriteBehind = bidWriteBehind;
+        this.bidRepository = bidRepository;
+        this.auctionRepository = auctionRepository;
+    }
+
+    public BidBook attach(Auction auction) {
+        if (auction.getId() == null) {
+            return auction.getBidBook();
+        }
+        BidBook book = books.get(auction.getId());
+        if (book == null) {
+            // Las consultas se hacen fuera del mapa para no bloquear a otras subastas del mismo segmento
+            book = load(auction.getId());
+            // Las subastas finalizadas no se conservan: su ranking ya no cambia
+            if (auction.getStatus() != Auction.AuctionStatus.FINISHED) {
+                BidBook existing = books.putIfAbsent(auction.getId(), book);
+                if (existing != null) {
+                    book = existing;
+                }
+            }
+        }
+        auction.setBidBook(book);
+        return book;
+    }
+
+    // Se invoca cuando la subasta pasa a ACTIVE
+    public BidBook rebuild(Auction auction) {
+        if (auction.getId() == null) {
+            return auction.getBidBook();
+        }
+        BidBook book = load(auction.getId());
+        auction.setBidBook(book);
+        books.put(auction.getId(), book);
+        return book;
+    }
+
+    public Optional<BidBook> find(Long auctionId) {
+        return Optional.ofNullable(books.get(auctionId));
+    }
+
+    public void evict(Long auctionId) {
+        if (auctionId != null) {
+            books.remove(auctionId);
+        }
+    }
+
+    // La escritura diferida descartó pujas que el libro ya había aceptado
+    @EventListener
+    public void onBidsDiscarded(BidsDiscarded event) {
+        event.auctionIds().forEach(this::evict);
+    }
+
+    // Arma el libro con consultas agregadas, sin inicializar las colecciones de la subasta
+    private BidBook load(Long auctionId) {
+        BidBook book = new BidBook();
+        bidRepository.findFirstByAuctionIdOrderByAmountDescIdAsc(auctionId).ifPresent(book::accept);
+        bidRepository.findBestBidsByAuctionId(auctionId)
+                .forEach(best -> book.rank(best.getUserId(), best.getUsername(), best.getAmount()));
+        auctionRepository.findRegisteredUsersById(auctionId)
+                .forEach(user -> book.register(user.getUserId(), user.getUsername()));
+        // Las pujas aceptadas que aún no se han escrito también cuentan
+        bidWriteBehind.pendingBids(auctionId).forEach(book::accept);
+        return book;
+    }
+}
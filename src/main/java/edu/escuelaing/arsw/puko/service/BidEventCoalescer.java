@@ -0,0 +1,151 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.dto.EventBidDTO;
+import edu.escuelaing.arsw.puko.dto.EventBidUpdateDTO;
+import edu.escuelaing.arsw.puko.dto.RankingSnapshotDTO;
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.model.RankingChange;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Agrupa las pujas de una subasta que llegan dentro de una ventana corta en un único BID_UPDATE
+// (y un único NEW_TOP_BID), en lugar de tres eventos por puja. Con window-ms en 0 cada puja es una ventana de una.
+// El BID_UPDATE lleva solo las posiciones del ranking que cambiaron desde el anterior; snapshot() da el punto de partida.
+@Component
+public class BidEventCoalescer {
+
+    public static final String BID_UPDATE = "BID_UPDATE";
+
+    // Tiempo que se conserva la ventana cerrada de una subasta finalizada. Una puja confirmada antes de la
+    // finalización puede llegar después por su hook de commit: no debe abrir otra ventana con la secuencia en 0.
+    private static final long CLOSED_WINDOW_MILLIS = 60_000;
+
+    private final AuctionEventPublisher auctionEventPublisher;
+
+    private final long windowMillis;
+
+    private final ScheduledExecutorService timer;
+
+    private final ConcurrentHashMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BidEventCoalescer(AuctionEventPublisher auctionEventPublisher,
+                             @Value("${puko.events.coalescing.window-ms:50}") long windowMillis) {
+        this.auctionEventPublisher = auctionEventPublisher;
+        this.windowMillis = windowMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bid-event-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Se registra tras el commit: una puja revertida nunca llega a la ventana
+    public void offer(Long auctionId, double amount, String leader, List<RankingEntry> ranking) {
+        EventDispatcher.runAfterCommit(() -> merge(auctionId, amount, leader, ranking));
+    }
+
+    // Ranking ya publicado y su secuencia; sin eventos previos se parte del ranking actual con secuencia 0
+    public RankingSnapshotDTO snapshot(Long auctionId, Supplier<List<RankingEntry>> currentRanking) {
+        Window window = windows.get(auctionId);
+        RankingSnapshotDTO snapshot = window == null ? null : window.snapshot();
+        return snapshot != null ? snapshot : new RankingSnapshotDTO(auctionId, 0, currentRanking.get());
+    }
+
+    // Al finalizar la subasta se envía lo pendiente y se cierra su ventana; se libera pasado CLOSED_WINDOW_MILLIS
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimelineChanged(AuctionTimeline timeline) {
+        if (timeline.status() == Auction.AuctionStatus.FINISHED) {
+            Long auctionId = timeline.auctionId();
+            Window window = windows.computeIfAbsent(auctionId, Window::new);
+            window.close();
+            timer.schedule(() -> windows.remove(auctionId, window), CLOSED_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        windows.values().forEach(Window::flush);
+    }
+
+    private void merge(Long auctionId, double amount, String leader, List<RankingEntry> ranking) {
+        Window window = windows.computeIfAbsent(auctionId, Window::new);
+        if (window.merge(amount, leader, ranking)) {
+            if (windowMillis > 0) {
+                timer.schedule(window::flush, windowMillis, TimeUnit.MILLISECONDS);
+            } else {
+                // Sin ventana cada puja se envía sola, con la misma secuencia y los mismos deltas
+                window.flush();
+            }
+        }
+    }
+
+    private final class Window {
+        private final Long auctionId;
+        private long sequence;
+        private double amount;
+        private String leader;
+        private List<RankingEntry> ranking;
+        private List<RankingEntry> published = List.of();
+        private int bids;
+        private boolean closed;
+
+        private Window(Long auctionId) {
+            this.auctionId = auctionId;
+        }
+
+        // Devuelve true si la ventana estaba vacía y hay que programar su envío.
+        // Gana la puja más alta, no la última en llegar: un commit atrasado no publica un precio viejo.
+        private synchronized boolean merge(double amount, String leader, List<RankingEntry> ranking) {
+            if (closed) {
+                // La subasta ya finalizó y se publicó su último ranking
+                return false;
+            }
+            if (amount >= this.amount) {
+                this.amount = amount;
+                this.leader = leader;
+                this.ranking = ranking;
+            } else if (bids == 0) {
+                // Ya se publicó una puja más alta: no hay nada nuevo que enviar
+                return false;
+            }
+            return bids++ == 0;
+        }
+
+        // Se publica dentro del monitor para que las secuencias salgan en orden
+        private synchronized void flush() {
+            if (bids == 0) {
+                return;
+            }
+            List<RankingChange> changes = RankingChange.diff(published, ranking);
+            auctionEventPublisher.publishAuctionEvent(auctionId, BID_UPDATE,
+                    new EventBidUpdateDTO(auctionId, ++sequence, amount, leader, bids, ranking.size(), changes));
+            auctionEventPublisher.publishAuctionAvailableEvent("NEW_TOP_BID", new EventBidDTO(auctionId, amount));
+            published = ranking;
+            bids = 0;
+            ranking = null;
+        }
+
+        private synchronized void close() {
+            flush();
+            closed = true;
+        }
+
+        private synchronized RankingSnapshotDTO snapshot() {
+            return sequence == 0 ? null : new RankingSnapshotDTO(auctionId, sequence, published);
+        }
+    }
+}
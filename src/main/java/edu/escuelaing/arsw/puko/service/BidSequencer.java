@@ -0,0 +1,129 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.exception.AuctionException;
+import edu.escuelaing.arsw.puko.model.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Secuenciador de pujas: cada subasta tiene una cola acotada que procesa un único trabajador a la vez,
+// así los hilos de las peticiones no se bloquean esperando el lock de la subasta.
+@Component
+public class BidSequencer {
+
+    private static final int MAX_BIDS_PER_TURN = 64;
+
+    private final AuctionService auctionService;
+
+    private final boolean enabled;
+
+    private final int queueCapacity;
+
+    private final ExecutorService workers;
+
+    private final ConcurrentHashMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BidSequencer(AuctionService auctionService,
+                        @Value("${puko.bids.sequencer.enabled:false}") boolean enabled,
+                        @Value("${puko.bids.sequencer.queue-capacity:1024}") int queueCapacity,
+                        @Value("${puko.bids.sequencer.workers:8}") int workers) {
+        this.auctionService = auctionService;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.workers = enabled ? Executors.newFixedThreadPool(workers) : null;
+    }
+
+    public CompletableFuture<Boolean> submit(Long auctionId, User user, double amount) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(auctionService.placeBid(auctionId, user, amount));
+        }
+
+        BidCommand command = new BidCommand(user, amount, new CompletableFuture<>());
+        AtomicBoolean accepted = new AtomicBoolean(false);
+        // Se encola dentro de compute para no competir con el retiro de la cola cuando queda vacía
+        Lane lane = lanes.compute(auctionId, (id, existing) -> {
+            Lane current = existing == null ? new Lane(id) : existing;
+            accepted.set(current.queue.offer(command));
+            return current;
+        });
+        if (!accepted.get()) {
+            return CompletableFuture.failedFuture(new AuctionException("Hay demasiadas pujas en espera, intenta de nuevo"));
+        }
+        lane.schedule();
+        return command.result();
+    }
+
+    public int pendingBids(Long auctionId) {
+        Lane lane = lanes.get(auctionId);
+        return lane == null ? 0 : lane.queue.size();
+    }
+
+    int activeLanes() {
+        return lanes.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (workers != null) {
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private record BidCommand(User user, double amount, CompletableFuture<Boolean> result) {
+    }
+
+    private class Lane {
+        private final Long auctionId;
+        private final BlockingQueue<BidCommand> queue = new LinkedBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Lane(Long auctionId) {
+            this.auctionId = auctionId;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    failPending();
+                }
+            }
+        }
+
+        // Procesa un turno de pujas en orden de llegada y cede el trabajador a otras subastas
+        private void drain() {
+            int processed = 0;
+            BidCommand command;
+            while (processed < MAX_BIDS_PER_TURN && (command = queue.poll()) != null) {
+                try {
+                    command.result().complete(auctionService.placeBid(auctionId, command.user(), command.amount()));
+                } catch (Exception e) {
+                    command.result().completeExceptionally(e);
+                }
+                processed++;
+            }
+            scheduled.set(false);
+            // Las subastas sin pujas en espera (finalizadas o inactivas) no conservan su cola
+            lanes.computeIfPresent(auctionId, (id, current) ->
+                    current == this && queue.isEmpty() && !scheduled.get() ? null : current);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void failPending() {
+            BidCommand command;
+            while ((command = queue.poll()) != null) {
+                command.result().completeExceptionally(new AuctionException("El servicio de pujas se está deteniendo"));
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.Bid;
+import edu.escuelaing.arsw.puko.model.BidsDiscarded;
+import edu.escuelaing.arsw.puko.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Escritura diferida de pujas aceptadas: acumula los INSERT de Bid y los cambios de saldo temporal
+// y los escribe en lotes JDBC cada pocos milisegundos o al llegar al tamaño de lote.
+@Component
+public class BidWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidWriteBehind.class);
+
+    private static final String INSERT_BID =
+            "INSERT INTO bid (auction_id, user_id, amount, bid_time) VALUES (?, ?, ?, ?)";
+
+    // Se escriben deltas para no pisar otros cambios de saldo (p. ej. al finalizar una subasta)
+    private static final String UPDATE_BALANCE =
+            "UPDATE user SET temporary_money = temporary_money + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final int maxRetries;
+
+    private final Counter deadLettered;
+
+    // Volcados fallidos seguidos; solo lo modifica flush()
+    private int failedFlushes;
+
+    // Cada puja lleva los cambios de saldo que provocó: se escriben o se descartan junto con ella
+    private record PendingBid(Bid bid, Map<Long, Double> balances) {
+    }
+
+    private final ConcurrentLinkedDeque<PendingBid> pendingBids = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    // Todos los cambios de saldo sin escribir, por usuario; es lo que suma applyPending
+    private final ConcurrentHashMap<Long, Double> pendingBalances = new ConcurrentHashMap<>();
+
+    // La parte de pendingBalances cuyas pujas ya están en la base: solo estos cambios se pueden volcar
+    private final ConcurrentHashMap<Long, Double> writableBalances = new ConcurrentHashMap<>();
+
+    // Las transacciones que leen y modifican saldos toman el lock de lectura; el volcado de saldos toma el de escritura,
+    // así ninguna transacción ve la base de datos a medio camino entre el volcado y la limpieza de pendientes.
+    // Los INSERT de pujas se escriben antes y fuera del lock: no cambian ningún saldo.
+    private final ReentrantReadWriteLock flushGate = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public BidWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher applicationEventPublisher, MeterRegistry meterRegistry,
+                          @Value("${puko.bids.write-behind.enabled:false}") boolean enabled,
+                          @Value("${puko.bids.write-behind.batch-size:500}") int batchSize,
+                          @Value("${puko.bids.write-behind.max-retries:10}") int maxRetries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.deadLettered = meterRegistry.counter("puko.bids.write-behind.dead-lettered");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Impide volcar pendientes hasta que termine la transacción actual
+    public void holdFlush() {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        flushGate.readLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                flushGate.readLock().unlock();
+            }
+        });
+    }
+
+    // Suma a los usuarios cargados los cambios de saldo que aún no se han escrito. Antes se sacan del contexto:
+    // si la puja se rechaza o falla, Hibernate no escribe saldo + pendiente y el volcado no lo suma dos veces.
+    public void applyPending(Auction auction, User bidder, Bid previousBid) {
+        User registeredBidder = auction.findRegisteredUser(bidder).orElse(null);
+        Set<User> users = touchedUsers(auction, registeredBidder, previousBid);
+        Map<User, Double> loaded = new IdentityHashMap<>();
+        // Leer el saldo inicializa los proxies perezosos (p. ej. el creador) mientras siguen administrados
+        users.forEach(user -> loaded.put(user, user.getTemporaryMoney()));
+        users.forEach(entityManager::detach);
+        loaded.forEach((user, temporaryMoney) -> {
+            Double delta = pendingBalances.get(user.getId());
+            if (delta != null) {
+                user.setTemporaryMoney(temporaryMoney + delta);
+            }
+        });
+    }
+
+    public void defer(Auction auction, Bid acceptedBid, Bid previousBid) {
+        Map<Long, Double> balances = new HashMap<>();
+        balances.merge(acceptedBid.getUser().getId(), -acceptedBid.getAmount(), Double::sum);
+        double creatorDelta = acceptedBid.getAmount() - (previousBid == null ? 0 : previousBid.getAmount());
+        balances.merge(auction.getCreator().getId(), creatorDelta, Double::sum);
+        if (previousBid != null) {
+            balances.merge(previousBid.getUser().getId(), previousBid.getAmount(), Double::sum);
+        }
+        balances.forEach((userId, delta) -> pendingBalances.merge(userId, delta, Double::sum));
+        pendingBids.addLast(new PendingBid(acceptedBid, balances));
+
+        // Los cambios ya quedaron registrados aquí: se sacan del contexto para que Hibernate no los escriba
+        touchedUsers(auction, acceptedBid.getUser(), previousBid).forEach(entityManager::detach);
+
+        requestFlushIfFull();
+    }
+
+    // Solo la puja: los saldos los lleva la billetera (WalletService) en su propio libro de movimientos
+    public void deferBid(Bid acceptedBid) {
+        pendingBids.addLast(new PendingBid(acceptedBid, Map.of()));
+        requestFlushIfFull();
+    }
+
+    private void requestFlushIfFull() {
+        if (pendingCount.incrementAndGet() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    public List<Bid> pendingBids(Long auctionId) {
+        return pendingBids.stream()
+                .map(PendingBid::bid)
+                .filter(bid -> auctionId.equals(bid.getAuction().getId()))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${puko.bids.write-behind.flush-interval-ms:50}")
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (pendingBids.isEmpty() && pendingBalances.isEmpty()) {
+            return;
+        }
+
+        // Tras varios fallos seguidos se escribe fila por fila para apartar las que la base de datos rechaza
+        boolean rowByRow = failedFlushes >= maxRetries;
+        Exception failure = null;
+        try {
+            flushBids(rowByRow);
+        } catch (Exception e) {
+            failure = e;
+        }
+        // Los saldos de las pujas ya escritas no esperan a las que siguen fallando
+        try {
+            flushBalances(rowByRow);
+        } catch (Exception e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+
+        if (failure == null) {
+            failedFlushes = 0;
+        } else {
+            // Se reintenta en el siguiente ciclo con los mismos pendientes
+            failedFlushes++;
+            logger.error("Could not flush {} pending bids (attempt {})", pendingCount.get(), failedFlushes, failure);
+        }
+    }
+
+    private void flushBids(boolean rowByRow) {
+        List<PendingBid> bids = new ArrayList<>(pendingBids);
+        if (bids.isEmpty()) {
+            return;
+        }
+        if (rowByRow) {
+            flushBidsOneByOne(bids);
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_BID, bids, batchSize, (ps, pending) -> {
+                    Bid bid = pending.bid();
+                    ps.setLong(1, bid.getAuction().getId());
+                    ps.setLong(2, bid.getUser().getId());
+                    ps.setDouble(3, bid.getAmount());
+                    ps.setTimestamp(4, Timestamp.valueOf(bid.getBidTime()));
+                }));
+        // Solo después del commit se descuenta lo que se escribió; sus saldos ya se pueden volcar
+        for (PendingBid pending : bids) {
+            pending.balances().forEach((userId, delta) -> writableBalances.merge(userId, delta, Double::sum));
+            pendingBids.pollFirst();
+        }
+        pendingCount.addAndGet(-bids.size());
+    }
+
+    // Cada puja y sus saldos van en una transacción propia: una puja rechazada se descarta sin mover ningún saldo
+    private void flushBidsOneByOne(List<PendingBid> bids) {
+        Set<Long> changedUsers = new HashSet<>();
+        Set<Long> discardedAuctions = new HashSet<>();
+        try {
+            for (PendingBid pending : bids) {
+                Bid bid = pending.bid();
+                flushGate.writeLock().lock();
+                try {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            jdbcTemplate.update(INSERT_BID, bid.getAuction().getId(), bid.getUser().getId(),
+                                    bid.getAmount(), Timestamp.valueOf(bid.getBidTime()));
+                            pending.balances().forEach((userId, delta) -> jdbcTemplate.update(UPDATE_BALANCE, delta, userId));
+                        });
+                        changedUsers.addAll(pending.balances().keySet());
+                    } catch (Exception e) {
+                        deadLetter(e, "bid {} of user {} on auction {}",
+                                bid.getAmount(), bid.getUser().getId(), bid.getAuction().getId());
+                        discardedAuctions.add(bid.getAuction().getId());
+                    }
+                    subtract(pendingBalances, pending.balances());
+                } finally {
+                    flushGate.writeLock().unlock();
+                }
+                pendingBids.pollFirst();
+                pendingCount.decrementAndGet();
+            }
+        } finally {
+            if (!changedUsers.isEmpty()) {
+                applicationEventPublisher.publishEvent(BalancesChanged.of(changedUsers));
+            }
+            // El libro en memoria todavía muestra las pujas descartadas: se vuelve a armar desde la base
+            if (!discardedAuctions.isEmpty()) {
+                applicationEventPublisher.publishEvent(new BidsDiscarded(discardedAuctions));
+            }
+        }
+    }
+
+    private void flushBalances(boolean rowByRow) {
+        if (writableBalances.isEmpty()) {
+            return;
+        }
+        flushGate.writeLock().lock();
+        Map<Long, Double> written = new HashMap<>();
+        try {
+            Map<Long, Double> balances = new HashMap<>(writableBalances);
+            if (rowByRow) {
+                // Las pujas de estos saldos ya están escritas: solo se descarta un saldo que la base rechaza
+                for (Map.Entry<Long, Double> balance : balances.entrySet()) {
+                    try {
+                        jdbcTemplate.update(UPDATE_BALANCE, balance.getValue(), balance.getKey());
+                    } catch (Exception e) {
+                        deadLetter(e, "balance change {} of user {}", balance.getValue(), balance.getKey());
+                    }
+                    written.put(balance.getKey(), balance.getValue());
+                }
+            } else {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(UPDATE_BALANCE, new ArrayList<>(balances.entrySet()), batchSize, (ps, balance) -> {
+                            ps.setDouble(1, balance.getValue());
+                            ps.setLong(2, balance.getKey());
+                        }));
+                written.putAll(balances);
+            }
+        } finally {
+            // Lo confirmado (o descartado) sale de pendientes aunque el volcado se corte a medias
+            subtract(writableBalances, written);
+            subtract(pendingBalances, written);
+            flushGate.writeLock().unlock();
+            // Los saldos escritos ya están en la base: lo que se tenga en memoria de esos usuarios quedó viejo
+            if (!written.isEmpty()) {
+                applicationEventPublisher.publishEvent(BalancesChanged.of(written.keySet()));
+            }
+        }
+    }
+
+    private static void subtract(ConcurrentHashMap<Long, Double> balances, Map<Long, Double> deltas) {
+        deltas.forEach((userId, delta) -> balances.computeIfPresent(userId, (id, pending) -> {
+            double remaining = pending - delta;
+            return Math.abs(remaining) < 1e-9 ? null : remaining;
+        }));
+    }
+
+    // Una fila que la base de datos rechaza se descarta para no detener el resto; si la base no responde,
+    // se corta el volcado y lo que falta sigue pendiente
+    private void deadLetter(Exception e, String row, Object... values) {
+        if (e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException) {
+            throw (RuntimeException) e;
+        }
+        deadLettered.increment();
+        Object[] arguments = Arrays.copyOf(values, values.length + 1);
+        arguments[values.length] = e;
+        logger.error("Discarding unwritable " + row, arguments);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private Set<User> touchedUsers(Auction auction, User bidder, Bid previousBid) {
+        Set<User> users = Collections.newSetFromMap(new IdentityHashMap<>());
+        users.add(auction.getCreator());
+        if (bidder != null) {
+            users.add(bidder);
+        }
+        if (previousBid != null) {
+            auction.findRegisteredUser(previousBid.getUser()).ifPresent(users::add);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,57 @@
+package edu.escuelaing.arsw.puko.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versiones del contenido que ven los clientes: el catálogo de subastas y cada subasta.
+// Suben con los mismos eventos que publica AuctionService, después del commit.
+@Component
+public class ContentVersions {
+
+    private final AtomicLong catalog = new AtomicLong();
+
+    // Todas las versiones de subastas salen de una sola secuencia: así la versión de una subasta nunca baja,
+    // tampoco cuando su contador se descarta al finalizarla
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ConcurrentHashMap<Long, Long> auctions = new ConcurrentHashMap<>();
+
+    // Versión de las subastas sin contador (finalizadas o sin eventos desde el arranque); sube con cada finalización
+    private volatile long retired;
+
+    public long catalog() {
+        return catalog.get();
+    }
+
+    public long auction(Long auctionId) {
+        Long version = auctions.get(auctionId);
+        return version == null ? retired : version;
+    }
+
+    public void catalogChanged() {
+        catalog.incrementAndGet();
+    }
+
+    public void auctionChanged(Long auctionId) {
+        if (auctions.computeIfPresent(auctionId, (id, version) -> sequence.incrementAndGet()) == null) {
+            firstChange(auctionId);
+        }
+    }
+
+    // Una subasta finalizada ya no cambia: su contador se descarta y pasa a la versión común de las retiradas
+    public synchronized void auctionFinished(Long auctionId) {
+        retired = sequence.incrementAndGet();
+        auctions.remove(auctionId);
+    }
+
+    int trackedAuctions() {
+        return auctions.size();
+    }
+
+    // Con el mismo lock que auctionFinished: la versión nueva queda siempre por encima de la de las retiradas
+    private synchronized void firstChange(Long auctionId) {
+        auctions.compute(auctionId, (id, version) -> sequence.incrementAndGet());
+    }
+}
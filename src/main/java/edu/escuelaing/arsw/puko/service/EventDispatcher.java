@@ -0,0 +1,306 @@
+package edu.escuelaing.arsw.puko.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+// Despacho de eventos fuera de la transacción: se encolan tras el commit (y se descartan si hay rollback)
+// y los envían unos pocos trabajadores con envíos asíncronos. Así la latencia de una puja no depende del
+// transporte ni se mantiene el lock de la subasta durante la red.
+// Cada grupo (subasta) cae siempre en el mismo carril y tiene un solo envío en vuelo a la vez: los clientes
+// reciben sus eventos en el orden de publicación, del que dependen los números de secuencia y los deltas.
+@Component
+public class EventDispatcher {
+
+    public enum OverflowPolicy {
+        DROP_NEWEST, DROP_OLDEST, CALLER_RUNS
+    }
+
+    private final EventTransport transport;
+
+    private final Lane[] lanes;
+
+    private final Semaphore inFlight;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final long sendTimeoutMs;
+
+    private final Counter dropped;
+
+    private final Counter failed;
+
+    private final Counter sent;
+
+    private final Timer latency;
+
+    private ExecutorService workers;
+
+    private volatile boolean running;
+
+    @Autowired
+    public EventDispatcher(EventTransport transport, MeterRegistry meterRegistry,
+                           @Value("${puko.events.queue-capacity:10000}") int queueCapacity,
+                           @Value("${puko.events.workers:2}") int workers,
+                           @Value("${puko.events.max-in-flight:256}") int maxInFlight,
+                           @Value("${puko.events.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                           @Value("${puko.events.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.transport = transport;
+        this.lanes = new Lane[workers];
+        for (int i = 0; i < workers; i++) {
+            lanes[i] = new Lane(Math.max(1, queueCapacity / workers));
+        }
+        this.inFlight = new Semaphore(maxInFlight);
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.dropped = meterRegistry.counter("puko.events.dropped");
+        this.failed = meterRegistry.counter("puko.events.failed");
+        this.sent = meterRegistry.counter("puko.events.sent");
+        // Desde el encolado hasta que el transporte confirma: permite comparar transportes
+        this.latency = meterRegistry.timer("puko.events.latency");
+        Gauge.builder("puko.events.queue.depth", this, EventDispatcher::queueDepth).register(meterRegistry);
+        Gauge.builder("puko.events.in-flight", inFlight, s -> maxInFlight - s.availablePermits()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        workers = Executors.newFixedThreadPool(lanes.length, runnable -> {
+            Thread thread = new Thread(runnable, "event-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Lane lane : lanes) {
+            workers.execute(lane::drain);
+        }
+    }
+
+    public void dispatch(String group, byte[] payload, EventEncoding encoding) {
+        OutboundEvent event = new OutboundEvent(group, payload, encoding, System.nanoTime());
+        runAfterCommit(() -> laneOf(group).enqueue(event));
+    }
+
+    // Ejecuta la acción al confirmar la transacción en curso, o de inmediato si no hay ninguna
+    static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public int queueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.size();
+        }
+        return depth;
+    }
+
+    public double droppedEvents() {
+        return dropped.count();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private Lane laneOf(String group) {
+        return lanes[Math.floorMod(group.hashCode(), lanes.length)];
+    }
+
+    private record OutboundEvent(String group, byte[] payload, EventEncoding encoding, long createdAt) {
+    }
+
+    // Cola acotada de un trabajador, con una fila por grupo. El monitor del carril protege las filas,
+    // los grupos listos (con eventos y sin envío en vuelo) y los grupos ocupados.
+    // Un permiso se toma solo cuando un envío sale, así un grupo con muchos eventos ocupa uno solo.
+    private final class Lane {
+
+        private final Map<String, ArrayDeque<OutboundEvent>> queued = new LinkedHashMap<>();
+
+        private final ArrayDeque<String> ready = new ArrayDeque<>();
+
+        private final Set<String> busy = new HashSet<>();
+
+        private final int capacity;
+
+        private int size;
+
+        private Lane(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private void enqueue(OutboundEvent event) {
+            if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+                enqueueOrRun(event);
+                return;
+            }
+            synchronized (this) {
+                if (size >= capacity) {
+                    if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                        dropped.increment();
+                        return;
+                    }
+                    dropOldest(event.group());
+                }
+                add(event);
+            }
+        }
+
+        // Quien publica espera un permiso y envía él mismo el evento listo más viejo hasta que haya lugar
+        private void enqueueOrRun(OutboundEvent event) {
+            try {
+                while (true) {
+                    synchronized (this) {
+                        if (size < capacity) {
+                            add(event);
+                            return;
+                        }
+                    }
+                    inFlight.acquire();
+                    OutboundEvent next;
+                    synchronized (this) {
+                        if (size < capacity || ready.isEmpty()) {
+                            inFlight.release();
+                            if (size >= capacity) {
+                                // Todos los grupos encolados tienen un envío en vuelo: se espera a que uno termine
+                                wait();
+                            }
+                            continue;
+                        }
+                        next = take();
+                    }
+                    send(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+            }
+        }
+
+        private void drain() {
+            while (running) {
+                try {
+                    synchronized (this) {
+                        while (ready.isEmpty()) {
+                            wait();
+                        }
+                    }
+                    inFlight.acquire();
+                    OutboundEvent event;
+                    synchronized (this) {
+                        // Otro hilo pudo llevarse el grupo listo mientras se esperaba el permiso
+                        if (ready.isEmpty()) {
+                            inFlight.release();
+                            continue;
+                        }
+                        event = take();
+                    }
+                    send(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void add(OutboundEvent event) {
+            ArrayDeque<OutboundEvent> events = queued.computeIfAbsent(event.group(), group -> new ArrayDeque<>());
+            events.addLast(event);
+            size++;
+            if (events.size() == 1 && !busy.contains(event.group())) {
+                ready.addLast(event.group());
+                notifyAll();
+            }
+        }
+
+        // Se sacrifica el evento más viejo del mismo grupo (o del grupo encolado hace más tiempo):
+        // el estado más reciente es el que le sirve al cliente
+        private void dropOldest(String group) {
+            String victim = queued.containsKey(group) ? group : queued.keySet().iterator().next();
+            ArrayDeque<OutboundEvent> events = queued.get(victim);
+            events.pollFirst();
+            if (events.isEmpty()) {
+                queued.remove(victim);
+                ready.remove(victim);
+            }
+            size--;
+            dropped.increment();
+        }
+
+        // El llamador tiene un permiso y el monitor; el grupo queda ocupado hasta que termine el envío
+        private OutboundEvent take() {
+            String group = ready.pollFirst();
+            ArrayDeque<OutboundEvent> events = queued.get(group);
+            OutboundEvent event = events.pollFirst();
+            if (events.isEmpty()) {
+                queued.remove(group);
+            }
+            size--;
+            busy.add(group);
+            notifyAll();
+            return event;
+        }
+
+        private synchronized void finished(String group) {
+            busy.remove(group);
+            if (queued.containsKey(group)) {
+                ready.addLast(group);
+            }
+            notifyAll();
+        }
+
+        // Se envía fuera del monitor. Termina cuando el transporte confirma, falla o vence el plazo:
+        // así se libera el permiso y el grupo sigue aunque el transporte nunca responda
+        private void send(OutboundEvent event) {
+            CompletableFuture<Void> result;
+            try {
+                result = transport.send(event.group(), event.payload(), event.encoding())
+                        .copy()
+                        .orTimeout(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            result.whenComplete((ignored, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    failed.increment();
+                } else {
+                    sent.increment();
+                    latency.record(System.nanoTime() - event.createdAt(), TimeUnit.NANOSECONDS);
+                }
+                finished(event.group());
+            });
+        }
+    }
+}
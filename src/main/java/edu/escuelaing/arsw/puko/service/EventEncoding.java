@@ -0,0 +1,6 @@
+package edu.escuelaing.arsw.puko.service;
+
+// Codificaciones de los eventos: JSON para todos los clientes, CBOR para los que se suscriben al grupo binario
+public enum EventEncoding {
+    JSON, CBOR
+}
@@ -0,0 +1,60 @@
+package edu.escuelaing.arsw.puko.service;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import edu.escuelaing.arsw.puko.exception.EventPublisherException;
+import edu.escuelaing.arsw.puko.model.AuctionEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Serializa los eventos con un ObjectWriter ya construido por tipo de contenido (JSON y CBOR)
+// y un buffer de salida reutilizado por hilo, en lugar de crear un ObjectMapper por mensaje.
+@Component
+public class EventSerializer {
+
+    private final ObjectMapper jsonMapper;
+
+    private final ObjectMapper cborMapper;
+
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> jsonWriters = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> cborWriters = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(() -> new ByteArrayBuilder(512));
+
+    @Autowired
+    public EventSerializer(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
+    public byte[] serialize(AuctionEvent<?> event, EventEncoding encoding) {
+        ObjectWriter writer = encoding == EventEncoding.CBOR
+                ? writerFor(cborWriters, cborMapper, event)
+                : writerFor(jsonWriters, jsonMapper, event);
+        ByteArrayBuilder buffer = buffers.get();
+        try {
+            writer.writeValue(buffer, event);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new EventPublisherException("Error serializing AuctionEvent " + event.eventType());
+        } finally {
+            buffer.reset();
+        }
+    }
+
+    private static ObjectWriter writerFor(ConcurrentHashMap<Class<?>, ObjectWriter> writers, ObjectMapper mapper,
+                                          AuctionEvent<?> event) {
+        Class<?> payloadType = event.eventData() == null ? Object.class : event.eventData().getClass();
+        return writers.computeIfAbsent(payloadType, type -> {
+            JavaType eventType = mapper.getTypeFactory().constructParametricType(AuctionEvent.class, type);
+            return mapper.writerFor(eventType);
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package edu.escuelaing.arsw.puko.service;
+
+import java.util.concurrent.CompletableFuture;
+
+// Canal de salida de los eventos ya serializados (JSON o CBOR) hacia un grupo de clientes
+public interface EventTransport {
+
+    CompletableFuture<Void> send(String group, byte[] payload, EventEncoding encoding);
+}
@@ -1,19 +1,14 @@
 package edu.escuelaing.arsw.puko.service;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
 import edu.escuelaing.arsw.puko.config.JWTGenerator;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,22 +19,26 @@ public class GoogleAuthService {
 
     private JWTGenerator jwtGenerator;
 
-    private GoogleIdTokenVerifier googleIdTokenVerifier;
+    private GoogleTokenVerifier googleTokenVerifier;
 
-    @Value("${spring.security.oauth2.client.registration.google.client-id}")
-    private String CLIENT_ID;
+    private UserIdentityCache userIdentityCache;
+
+    private UserCache userCache;
 
     @Autowired
-    public GoogleAuthService(UserRepository userRepository, JWTGenerator jwtGenerator) {
+    public GoogleAuthService(UserRepository userRepository, JWTGenerator jwtGenerator,
+                             UserIdentityCache userIdentityCache, UserCache userCache,
+                             GoogleTokenVerifier googleTokenVerifier) {
         this.userRepository = userRepository;
         this.jwtGenerator = jwtGenerator;
-        this.googleIdTokenVerifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new JacksonFactory())
-                .setAudience(Collections.singletonList(CLIENT_ID))
-                .build();
+        this.userIdentityCache = userIdentityCache;
+        this.userCache = userCache;
+        this.googleTokenVerifier = googleTokenVerifier;
     }
 
     public Map<String, Object> authenticateWithGoogle(String idToken) throws GeneralSecurityException, IOException {
-        GoogleIdToken.Payload payloadGoogle = validateGoogleIdToken(idToken);
+        // Verificador compartido: las claves de Google ya están en memoria
+        GoogleIdToken.Payload payloadGoogle = googleTokenVerifier.verify(idToken);
 
         if (payloadGoogle == null) {
             throw new IllegalArgumentException("Token ID inválido");
@@ -58,13 +57,17 @@ public class GoogleAuthService {
             String googleName = payloadGoogle.get("name").toString();
             if (!googleName.equals(user.getUsername())) {
                 user.setUsername(googleName);
+                userIdentityCache.evict(email);
             }
             // Sincroniza otros campos si es necesario
             userRepository.save(user);
         }
 
-        // Generar el JWT para el usuario
-        String token = jwtGenerator.generateTokenFromEmail(email);
+        // Los datos sincronizados reemplazan lo que hubiera en caché
+        userCache.evict(user.getId());
+
+        // Generar el JWT para el usuario: lleva su id y roles para autenticar sin consultar la base
+        String token = jwtGenerator.generateToken(user);
 
         // Devolver token y usuario
         Map<String, Object> response = new HashMap<>();
@@ -72,23 +75,4 @@ public class GoogleAuthService {
         response.put("user", user);
         return response;
     }
-
-
-    // Método para validar el ID Token de Google
-    private GoogleIdToken.Payload validateGoogleIdToken(String idToken) throws GeneralSecurityException, IOException {
-        // Creando el verificador para el ID Token
-        GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), JacksonFactory.getDefaultInstance())
-                .setAudience(Collections.singletonList(CLIENT_ID)) // Establece el CLIENT_ID
-                .build();
-
-        // Verifica el ID Token
-        GoogleIdToken googleIdToken = verifier.verify(idToken);
-        if (googleIdToken != null) {
-            // Si la validación es exitosa, obtener el payload del token
-            return googleIdToken.getPayload();
-        } else {
-            // Si el ID Token no es válido
-            return null;
-        }
-    }
 }
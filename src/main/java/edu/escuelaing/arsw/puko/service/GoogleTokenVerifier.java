@@ -0,0 +1,142 @@
+package edu.escuelaing.arsw.puko.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+
+// Verificador único de ID tokens de Google. Las claves de firma se guardan en memoria y se refrescan
+// en segundo plano, así los inicios de sesión no descargan certificados. Al arrancar pueden cargarse
+// desde un JWKS local; un kid desconocido fuerza un refresco, como mucho uno por intervalo mínimo.
+@Component
+public class GoogleTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleTokenVerifier.class);
+
+    static final List<String> ISSUERS = List.of("accounts.google.com", "https://accounts.google.com");
+
+    // Tolerancia de reloj para exp/iat, la misma que usa la librería de Google
+    private static final long TIME_SKEW_SECONDS = 300;
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final SigningKeySource keySource;
+
+    private final SigningKeySource preloadSource;
+
+    private final List<String> audience;
+
+    private final long minRefreshIntervalMs;
+
+    private final Clock clock;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+
+    private volatile long lastRefreshAttempt;
+
+    @Autowired
+    public GoogleTokenVerifier(ObjectMapper objectMapper,
+                               @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+                               @Value("${puko.auth.google.certs-url:https://www.googleapis.com/oauth2/v3/certs}") String certsUrl,
+                               @Value("${puko.auth.google.jwks-file:}") String jwksFile,
+                               @Value("${puko.auth.google.min-refresh-interval-ms:60000}") long minRefreshIntervalMs) {
+        this(JwksKeySource.fromUrl(objectMapper, HttpClient.newHttpClient(), URI.create(certsUrl)),
+                jwksFile.isBlank() ? null : JwksKeySource.fromFile(objectMapper, Path.of(jwksFile)),
+                clientId, minRefreshIntervalMs, Clock.systemUTC());
+    }
+
+    GoogleTokenVerifier(SigningKeySource keySource, SigningKeySource preloadSource, String clientId,
+                        long minRefreshIntervalMs, Clock clock) {
+        this.keySource = keySource;
+        this.preloadSource = preloadSource;
+        this.audience = List.of(clientId);
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void preload() {
+        if (preloadSource == null) {
+            return;
+        }
+        try {
+            keys = Map.copyOf(preloadSource.load());
+        } catch (Exception e) {
+            logger.warn("Could not preload Google signing keys from JWKS file", e);
+        }
+    }
+
+    // El primer ciclo corre al arrancar; los siguientes mantienen las claves al día sin tocar las peticiones
+    @Scheduled(fixedDelayString = "${puko.auth.google.refresh-interval-ms:3600000}")
+    public void refresh() {
+        lastRefreshAttempt = clock.millis();
+        try {
+            Map<String, PublicKey> loaded = keySource.load();
+            if (!loaded.isEmpty()) {
+                keys = Map.copyOf(loaded);
+            }
+        } catch (Exception e) {
+            // Se siguen usando las claves anteriores
+            logger.warn("Could not refresh Google signing keys", e);
+        }
+    }
+
+    // Devuelve el payload si el token es válido (firma, emisor, audiencia y vigencia), o null si no lo es
+    public GoogleIdToken.Payload verify(String idToken) {
+        GoogleIdToken token;
+        try {
+            token = GoogleIdToken.parse(JSON_FACTORY, idToken);
+        } catch (Exception e) {
+            return null;
+        }
+        PublicKey key = signingKey(token.getHeader().getKeyId());
+        try {
+            if (key == null || !token.verifySignature(key)) {
+                return null;
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        boolean valid = token.verifyIssuer(ISSUERS)
+                && token.verifyAudience(audience)
+                && token.verifyTime(clock.millis(), TIME_SKEW_SECONDS);
+        return valid ? token.getPayload() : null;
+    }
+
+    public int keyCount() {
+        return keys.size();
+    }
+
+    private PublicKey signingKey(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        PublicKey key = keys.get(keyId);
+        // Google rotó las claves antes del próximo refresco: se intenta una vez, sin repetir en cada petición
+        if (key == null && clock.millis() - lastRefreshAttempt >= minRefreshIntervalMs) {
+            synchronized (this) {
+                key = keys.get(keyId);
+                if (key == null && clock.millis() - lastRefreshAttempt >= minRefreshIntervalMs) {
+                    refresh();
+                    key = keys.get(keyId);
+                }
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,52 @@
+package edu.escuelaing.arsw.puko.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+// Hub en memoria para un solo nodo y para pruebas: entrega cada evento a los suscriptores del grupo
+// en el mismo hilo del dispatcher, sin servicio externo.
+@Component
+@ConditionalOnProperty(name = "puko.events.transport", havingValue = "in-process")
+public class InProcessEventTransport implements EventTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessEventTransport.class);
+
+    private final ConcurrentHashMap<String, List<BiConsumer<byte[], EventEncoding>>> groups = new ConcurrentHashMap<>();
+
+    public AutoCloseable subscribe(String group, BiConsumer<byte[], EventEncoding> subscriber) {
+        groups.computeIfAbsent(group, key -> new CopyOnWriteArrayList<>()).add(subscriber);
+        return () -> groups.computeIfPresent(group, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    public int subscribers(String group) {
+        List<BiConsumer<byte[], EventEncoding>> subscribers = groups.get(group);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String group, byte[] payload, EventEncoding encoding) {
+        List<BiConsumer<byte[], EventEncoding>> subscribers = groups.get(group);
+        if (subscribers != null) {
+            for (BiConsumer<byte[], EventEncoding> subscriber : subscribers) {
+                // Un suscriptor que falla no impide la entrega a los demás
+                try {
+                    subscriber.accept(payload, encoding);
+                } catch (RuntimeException e) {
+                    logger.warn("Suscriptor del grupo {} falló al recibir un evento", group, e);
+                }
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+}
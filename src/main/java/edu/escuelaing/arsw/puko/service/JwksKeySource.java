@@ -0,0 +1,83 @@
+package edu.escuelaing.arsw.puko.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+// Claves RSA de un documento JWKS ({"keys": [{"kid", "kty", "n", "e"}, ...]}), desde una URL o un archivo local
+public final class JwksKeySource implements SigningKeySource {
+
+    @FunctionalInterface
+    private interface Opener {
+        InputStream open() throws IOException, InterruptedException;
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final Opener opener;
+
+    private JwksKeySource(ObjectMapper objectMapper, Opener opener) {
+        this.objectMapper = objectMapper;
+        this.opener = opener;
+    }
+
+    public static JwksKeySource fromUrl(ObjectMapper objectMapper, HttpClient httpClient, URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET().build();
+        return new JwksKeySource(objectMapper, () -> {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new IOException("JWKS request to " + uri + " returned " + response.statusCode());
+            }
+            return response.body();
+        });
+    }
+
+    public static JwksKeySource fromFile(ObjectMapper objectMapper, Path path) {
+        return new JwksKeySource(objectMapper, () -> Files.newInputStream(path));
+    }
+
+    @Override
+    public Map<String, PublicKey> load() throws IOException, GeneralSecurityException {
+        JsonNode jwks;
+        try (InputStream in = opener.open()) {
+            jwks = objectMapper.readTree(in);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading JWKS", e);
+        }
+        return parse(jwks);
+    }
+
+    static Map<String, PublicKey> parse(JsonNode jwks) throws GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (JsonNode key : jwks.path("keys")) {
+            // Solo claves RSA de firma
+            if (!"RSA".equals(key.path("kty").asText()) || key.path("kid").isMissingNode()) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(key.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(key.path("e").asText()));
+            keys.put(key.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,71 @@
+package edu.escuelaing.arsw.puko.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+// Transporte para benchmarks y pruebas de carga: cuenta mensajes y bytes y conserva los últimos eventos,
+// sin red, para medir el camino de la puja de forma reproducible.
+@Component
+@ConditionalOnProperty(name = "puko.events.transport", havingValue = "recording")
+public class RecordingEventTransport implements EventTransport {
+
+    public record RecordedEvent(String group, byte[] payload, EventEncoding encoding) {
+    }
+
+    private final int retained;
+
+    private final ArrayDeque<RecordedEvent> recent;
+
+    private final LongAdder messages = new LongAdder();
+
+    private final LongAdder bytes = new LongAdder();
+
+    public RecordingEventTransport(@Value("${puko.events.recording.retained:1000}") int retained) {
+        this.retained = retained;
+        this.recent = new ArrayDeque<>(Math.max(retained, 0));
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String group, byte[] payload, EventEncoding encoding) {
+        messages.increment();
+        bytes.add(payload.length);
+        if (retained > 0) {
+            synchronized (recent) {
+                if (recent.size() == retained) {
+                    recent.pollFirst();
+                }
+                recent.addLast(new RecordedEvent(group, payload, encoding));
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public long messageCount() {
+        return messages.sum();
+    }
+
+    public long byteCount() {
+        return bytes.sum();
+    }
+
+    public List<RecordedEvent> recentEvents() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public void reset() {
+        messages.reset();
+        bytes.reset();
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package edu.escuelaing.arsw.puko.service;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.Map;
+
+// Origen de las claves públicas con las que se firman los ID tokens, por kid.
+// La implementación por defecto lee un JWKS (remoto o en archivo); las pruebas pueden usar claves locales.
+@FunctionalInterface
+public interface SigningKeySource {
+
+    Map<String, PublicKey> load() throws IOException, GeneralSecurityException;
+}
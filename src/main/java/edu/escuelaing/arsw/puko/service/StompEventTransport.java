@@ -0,0 +1,56 @@
+package edu.escuelaing.arsw.puko.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+// Envía los eventos al broker STOMP de la aplicación. El payload ya viene serializado, así que el broker
+// reparte los mismos bytes a todos los suscriptores del destino sin volver a convertirlos.
+@Component
+@ConditionalOnProperty(name = "puko.events.transport", havingValue = "stomp")
+public class StompEventTransport implements EventTransport {
+
+    private static final MimeType CBOR = MimeType.valueOf("application/cbor");
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    @Autowired
+    public StompEventTransport(SimpMessageSendingOperations messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String group, byte[] payload, EventEncoding encoding) {
+        MimeType contentType = encoding == EventEncoding.CBOR ? CBOR : MimeTypeUtils.APPLICATION_JSON;
+        messagingTemplate.send(destinationFor(group), MessageBuilder.withPayload(payload)
+                .setHeader(MessageHeaders.CONTENT_TYPE, contentType)
+                .build());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // auction-{id} -> /topic/auction/{id}, auction-{id}-time -> /topic/auction/{id}/time, auctions -> /topic/auctions;
+    // los grupos binarios (-bin) van a un subdestino /bin
+    static String destinationFor(String group) {
+        String base = group;
+        String suffix = "";
+        if (base.endsWith(AuctionEventPublisher.BINARY_GROUP_SUFFIX)) {
+            base = base.substring(0, base.length() - AuctionEventPublisher.BINARY_GROUP_SUFFIX.length());
+            suffix = "/bin";
+        }
+        if (base.startsWith("auction-")) {
+            String channel = base.substring("auction-".length());
+            if (channel.endsWith("-time")) {
+                channel = channel.substring(0, channel.length() - "-time".length()) + "/time";
+            }
+            return "/topic/auction/" + channel + suffix;
+        }
+        return "/topic/" + base + suffix;
+    }
+}
@@ -0,0 +1,165 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Usuarios leídos recientemente, indexados por id, email y nombre, acotados en tamaño y tiempo.
+// Solo es coherente en un nodo: con varias instancias detrás del balanceador debe desactivarse,
+// porque los cambios hechos por otro nodo no la invalidan. Guarda y entrega copias desacopladas del contexto de
+// persistencia, así lo que un llamador modifique en su usuario no llega a los demás.
+@Component
+public class UserCache {
+
+    private record Entry(User user, long loadedAt) {
+    }
+
+    private final ConcurrentHashMap<Long, Entry> byId = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Long> idByEmail = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Long> idByUsername = new ConcurrentHashMap<>();
+
+    // Sube con cada invalidación: una lectura que empezó antes no puede guardar un usuario viejo
+    private final AtomicLong generation = new AtomicLong();
+
+    private final boolean enabled;
+
+    private final int maxEntries;
+
+    private final long ttlMs;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    @Autowired
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${puko.users.cache.enabled:false}") boolean enabled,
+                     @Value("${puko.users.cache.max-entries:10000}") int maxEntries,
+                     @Value("${puko.users.cache.ttl-ms:60000}") long ttlMs) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.hits = meterRegistry.counter("puko.users.cache.hits");
+        this.misses = meterRegistry.counter("puko.users.cache.misses");
+        Gauge.builder("puko.users.cache.size", byId, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<User> getById(Long id) {
+        return record(id == null ? null : fresh(id));
+    }
+
+    public Optional<User> getByEmail(String email) {
+        Long id = email == null ? null : idByEmail.get(email);
+        return record(id == null ? null : fresh(id));
+    }
+
+    public Optional<User> getByUsername(String username) {
+        Long id = username == null ? null : idByUsername.get(username);
+        return record(id == null ? null : fresh(id));
+    }
+
+    // Se toma antes de consultar la base y se pasa a put()
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(User user, long generationBeforeLoad) {
+        if (!enabled || user == null || user.getId() == null) {
+            return;
+        }
+        if (byId.size() >= maxEntries || idByEmail.size() >= maxEntries) {
+            clear();
+        }
+        byId.put(user.getId(), new Entry(copyOf(user), System.currentTimeMillis()));
+        if (user.getEmail() != null) {
+            idByEmail.put(user.getEmail(), user.getId());
+        }
+        if (user.getUsername() != null) {
+            idByUsername.put(user.getUsername(), user.getId());
+        }
+        // Si hubo una invalidación mientras se leía, lo leído puede ser anterior a ella
+        if (generation.get() != generationBeforeLoad) {
+            byId.remove(user.getId());
+        }
+    }
+
+    public void evict(Long userId) {
+        generation.incrementAndGet();
+        if (userId != null) {
+            Entry entry = byId.remove(userId);
+            if (entry != null && entry.user().getEmail() != null) {
+                idByEmail.remove(entry.user().getEmail(), userId);
+            }
+            if (entry != null && entry.user().getUsername() != null) {
+                idByUsername.remove(entry.user().getUsername(), userId);
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        byId.clear();
+        idByEmail.clear();
+        idByUsername.clear();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Los saldos cambiaron (puja, finalización o volcado de la escritura diferida): ya committeado
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalancesChanged(BalancesChanged event) {
+        if (enabled) {
+            event.userIds().forEach(this::evict);
+        }
+    }
+
+    private User fresh(Long id) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadedAt() >= ttlMs) {
+            byId.remove(id, entry);
+            return null;
+        }
+        return copyOf(entry.user());
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getId(), user.getUsername(), user.getPassword());
+        copy.setEmail(user.getEmail());
+        copy.setAuthProvider(user.getAuthProvider());
+        copy.setRealMoney(user.getRealMoney());
+        copy.setTemporaryMoney(user.getTemporaryMoney());
+        return copy;
+    }
+
+    private Optional<User> record(User user) {
+        if (enabled) {
+            (user == null ? misses : hits).increment();
+        }
+        return Optional.ofNullable(user);
+    }
+}
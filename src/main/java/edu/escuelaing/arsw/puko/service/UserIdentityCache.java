@@ -0,0 +1,62 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.CurrentUser;
+import edu.escuelaing.arsw.puko.model.User;
+import edu.escuelaing.arsw.puko.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Identidades (id, email, nombre) por email, para las peticiones cuyo token no trae todos los claims.
+// Acotada en tamaño y tiempo: un cambio de nombre se ve a más tardar al vencer la entrada.
+@Component
+public class UserIdentityCache {
+
+    private record Entry(CurrentUser user, long loadedAt) {
+    }
+
+    private final ConcurrentHashMap<String, Entry> byEmail = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    private final int maxEntries;
+
+    private final long ttlMs;
+
+    @Autowired
+    public UserIdentityCache(UserRepository userRepository,
+                             @Value("${puko.users.identity-cache.max-entries:10000}") int maxEntries,
+                             @Value("${puko.users.identity-cache.ttl-ms:300000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+    }
+
+    // Null si no existe un usuario con ese email
+    public CurrentUser get(String email) {
+        long now = System.currentTimeMillis();
+        Entry entry = byEmail.get(email);
+        if (entry != null && now - entry.loadedAt() < ttlMs) {
+            return entry.user();
+        }
+        User user = userRepository.findByEmail(email);
+        if (user == null) {
+            byEmail.remove(email);
+            return null;
+        }
+        CurrentUser identity = CurrentUser.of(user);
+        if (byEmail.size() >= maxEntries) {
+            byEmail.clear();
+        }
+        byEmail.put(email, new Entry(identity, now));
+        return identity;
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            byEmail.remove(email);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package edu.escuelaing.arsw.puko.service;
 
+import edu.escuelaing.arsw.puko.dto.CursorPageDTO;
+import edu.escuelaing.arsw.puko.dto.PageCursor;
 import edu.escuelaing.arsw.puko.exception.UserNotFoundException;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class UserService {
@@ -17,39 +23,49 @@ public class UserService {
 
     private PasswordEncoder passwordEncoder;
 
+    private UserCache userCache;
+
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserCache userCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
     }
 
     @Transactional
     public User createUser(String username, String password, String email) {
         String encryptedPassword = passwordEncoder.encode(password);
         User user = new User(username, encryptedPassword, email);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.evict(saved.getId());
+        return saved;
     }
 
     public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        return cachedById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
     }
 
     public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userCache.getByUsername(username)
+                .orElseGet(() -> load(() -> userRepository.findByUsername(username)));
     }
 
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return findByEmail(email);
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public CursorPageDTO<User> getAllUsers(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = CursorPageDTO.pageSize(size);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(after.id(), Limit.of(pageSize + 1));
+        return CursorPageDTO.of(rows, pageSize, user -> PageCursor.after(user.getId()));
     }
 
     @Transactional
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
+        userCache.evict(userId);
     }
 
     public boolean checkPassword(String rawPassword, String encodedPassword) {
@@ -57,10 +73,34 @@ public class UserService {
     }
 
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userCache.getByEmail(email)
+                .orElseGet(() -> load(() -> userRepository.findByEmail(email)));
+    }
+
+    // Referencia perezosa para asociar al usuario actual sin consultarlo
+    public User reference(CurrentUser currentUser) {
+        return userRepository.getReferenceById(currentUser.id());
     }
 
     public User findByID(Long id) {
-        return userRepository.findById(id).orElse(null);
+        return cachedById(id).orElse(null);
+    }
+
+    private Optional<User> cachedById(Long id) {
+        Optional<User> cached = userCache.getById(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = userCache.generation();
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(loaded -> userCache.put(loaded, generation));
+        return user;
+    }
+
+    private User load(Supplier<User> query) {
+        long generation = userCache.generation();
+        User user = query.get();
+        userCache.put(user, generation);
+        return user;
     }
 }
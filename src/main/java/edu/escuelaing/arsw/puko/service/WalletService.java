@@ -0,0 +1,377 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.exception.AuctionException;
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.Bid;
+import edu.escuelaing.arsw.puko.model.BidFunds;
+import edu.escuelaing.arsw.puko.model.LedgerEntry;
+import edu.escuelaing.arsw.puko.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Billetera de los usuarios: saldos en memoria con un lock por usuario, así un usuario que puja en varias
+// subastas a la vez se serializa en su propia cuenta y no bajo el bidLock de cada subasta.
+// Cada puja líder reserva su monto (HOLD) y se libera (RELEASE) al ser superada. Los débitos se aplican
+// de inmediato y los abonos al confirmar la transacción, así nunca se gasta dinero de una transacción revertida.
+// Los movimientos se agregan al libro wallet_ledger y se suman a las columnas de User en lotes JDBC.
+// Solo es coherente en un nodo: otro nodo no ve los saldos en memoria de este.
+@Component
+public class WalletService implements BidFunds {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletService.class);
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO wallet_ledger (user_id, auction_id, kind, real_delta, temporary_delta, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Se escriben deltas de las dos columnas, no la fila completa del usuario
+    private static final String UPDATE_BALANCE =
+            "UPDATE user SET real_money = real_money + ?, temporary_money = temporary_money + ? WHERE id = ?";
+
+    private static final String SELECT_BALANCE =
+            "SELECT real_money, temporary_money FROM user WHERE id = ?";
+
+    private static final double EPSILON = 1e-6;
+
+    private record Reservation(Long userId, double amount) {
+    }
+
+    private record Balance(double realMoney, double temporaryMoney) {
+    }
+
+    // Saldo de un usuario; su monitor es el lock de la cuenta
+    private static final class Account {
+
+        private double realMoney;
+
+        private double temporaryMoney;
+
+        // Movimientos aplicados aquí que aún no están escritos en la base
+        private int unflushed;
+
+        private long version;
+
+        // Descartada por la conciliación: quien la tenga debe volver a buscarla
+        private boolean retired;
+
+        private Account(Balance balance) {
+            this.realMoney = balance.realMoney();
+            this.temporaryMoney = balance.temporaryMoney();
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    // Reserva vigente de cada subasta: la de su puja líder
+    private final ConcurrentHashMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedDeque<LedgerEntry> pendingEntries = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final Counter mismatches;
+
+    @Autowired
+    public WalletService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         ApplicationEventPublisher applicationEventPublisher, MeterRegistry meterRegistry,
+                         @Value("${puko.wallet.enabled:false}") boolean enabled,
+                         @Value("${puko.wallet.ledger.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.mismatches = meterRegistry.counter("puko.wallet.reconciliation.mismatches");
+        Gauge.builder("puko.wallet.accounts", accounts, Map::size).register(meterRegistry);
+        Gauge.builder("puko.wallet.reservations", reservations, Map::size).register(meterRegistry);
+        Gauge.builder("puko.wallet.ledger.pending", pendingCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean hold(Auction auction, User bidder, double amount, Bid previousBid) {
+        Long auctionId = auction.getId();
+        Reservation previous = reservations.get(auctionId);
+        if (previous == null && previousBid != null) {
+            // Tras un reinicio las reservas se recuperan de la puja líder del libro
+            previous = new Reservation(previousBid.getUser().getId(), previousBid.getAmount());
+        }
+
+        LedgerEntry hold = new LedgerEntry(bidder.getId(), auctionId, LedgerEntry.Kind.HOLD, 0, -amount);
+        if (!apply(hold, true)) {
+            return false;
+        }
+        Reservation current = new Reservation(bidder.getId(), amount);
+        Reservation replaced = reservations.put(auctionId, current);
+
+        List<LedgerEntry> credits = new ArrayList<>();
+        double previousAmount = previous == null ? 0 : previous.amount();
+        credits.add(new LedgerEntry(auction.getCreator().getId(), auctionId, LedgerEntry.Kind.PENDING_SALE,
+                0, amount - previousAmount));
+        if (previous != null) {
+            credits.add(new LedgerEntry(previous.userId(), auctionId, LedgerEntry.Kind.RELEASE, 0, previousAmount));
+        }
+
+        onCompletion(hold, credits, () -> {
+            if (replaced == null) {
+                reservations.remove(auctionId, current);
+            } else {
+                reservations.replace(auctionId, current, replaced);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void settle(Auction auction, Bid winningBid) {
+        Long auctionId = auction.getId();
+        double amount = winningBid.getAmount();
+
+        // La reserva pasa a ser el cobro: el dinero temporal del ganador ya estaba descontado
+        LedgerEntry payment = new LedgerEntry(winningBid.getUser().getId(), auctionId, LedgerEntry.Kind.PAYMENT, -amount, 0);
+        if (!apply(payment, true)) {
+            throw new AuctionException("El ganador no tiene suficiente dinero real");
+        }
+        Reservation reservation = reservations.remove(auctionId);
+
+        LedgerEntry sale = new LedgerEntry(auction.getCreator().getId(), auctionId, LedgerEntry.Kind.SALE, amount, amount);
+        onCompletion(payment, List.of(sale), () -> {
+            if (reservation != null) {
+                reservations.putIfAbsent(auctionId, reservation);
+            }
+        });
+    }
+
+    // Saldo temporal disponible según la billetera, con lo que aún no se ha escrito
+    public Optional<Double> temporaryMoney(Long userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            return Optional.empty();
+        }
+        synchronized (account) {
+            return account.retired ? Optional.empty() : Optional.of(account.temporaryMoney);
+        }
+    }
+
+    public Optional<Double> reserved(Long auctionId) {
+        return Optional.ofNullable(reservations.get(auctionId)).map(Reservation::amount);
+    }
+
+    @Scheduled(fixedDelayString = "${puko.wallet.ledger.flush-interval-ms:50}")
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (pendingEntries.isEmpty()) {
+            return;
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>(pendingEntries);
+        Map<Long, Balance> deltas = new HashMap<>();
+        for (LedgerEntry entry : entries) {
+            deltas.merge(entry.getUserId(), new Balance(entry.getRealDelta(), entry.getTemporaryDelta()),
+                    (a, b) -> new Balance(a.realMoney() + b.realMoney(), a.temporaryMoney() + b.temporaryMoney()));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_ENTRY, entries, batchSize, (ps, entry) -> {
+                    ps.setLong(1, entry.getUserId());
+                    if (entry.getAuctionId() == null) {
+                        ps.setNull(2, Types.BIGINT);
+                    } else {
+                        ps.setLong(2, entry.getAuctionId());
+                    }
+                    ps.setString(3, entry.getKind().name());
+                    ps.setDouble(4, entry.getRealDelta());
+                    ps.setDouble(5, entry.getTemporaryDelta());
+                    ps.setTimestamp(6, Timestamp.valueOf(entry.getCreatedAt()));
+                });
+                jdbcTemplate.batchUpdate(UPDATE_BALANCE, new ArrayList<>(deltas.entrySet()), batchSize, (ps, delta) -> {
+                    ps.setDouble(1, delta.getValue().realMoney());
+                    ps.setDouble(2, delta.getValue().temporaryMoney());
+                    ps.setLong(3, delta.getKey());
+                });
+            });
+
+            // Solo después del commit se descuenta lo que se escribió
+            for (int i = 0; i < entries.size(); i++) {
+                pendingEntries.pollFirst();
+            }
+            pendingCount.addAndGet(-entries.size());
+            entries.forEach(entry -> written(entry.getUserId()));
+            applicationEventPublisher.publishEvent(BalancesChanged.of(deltas.keySet()));
+        } catch (Exception e) {
+            // Se reintenta en el siguiente ciclo con los mismos movimientos
+            logger.error("Could not flush {} ledger entries", entries.size(), e);
+        }
+    }
+
+    // Compara las cuentas sin movimientos pendientes con las columnas de User y las descarta:
+    // la base manda, y la próxima operación vuelve a leerlas. Así el mapa tampoco crece sin límite.
+    @Scheduled(fixedDelayString = "${puko.wallet.reconciliation.interval-ms:60000}")
+    public void reconcile() {
+        for (Map.Entry<Long, Account> entry : accounts.entrySet()) {
+            Long userId = entry.getKey();
+            Account account = entry.getValue();
+            long version;
+            synchronized (account) {
+                if (account.retired || account.unflushed > 0) {
+                    continue;
+                }
+                version = account.version;
+            }
+
+            Balance stored = read(userId);
+            synchronized (account) {
+                if (account.retired || account.unflushed > 0 || account.version != version) {
+                    continue;
+                }
+                if (stored == null
+                        || Math.abs(stored.realMoney() - account.realMoney) > EPSILON
+                        || Math.abs(stored.temporaryMoney() - account.temporaryMoney) > EPSILON) {
+                    mismatches.increment();
+                    logger.warn("Wallet of user {} does not match stored balance: memory=({}, {}) stored={}",
+                            userId, account.realMoney, account.temporaryMoney, stored);
+                }
+                account.retired = true;
+                accounts.remove(userId, account);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    // Aplica el movimiento a la cuenta en memoria; con checkFunds no deja ningún saldo en negativo
+    private boolean apply(LedgerEntry entry, boolean checkFunds) {
+        while (true) {
+            Account account = accounts.computeIfAbsent(entry.getUserId(), this::load);
+            if (account == null) {
+                return false;
+            }
+            synchronized (account) {
+                if (account.retired) {
+                    continue;
+                }
+                if (checkFunds && (account.realMoney + entry.getRealDelta() < 0
+                        || account.temporaryMoney + entry.getTemporaryDelta() < 0)) {
+                    return false;
+                }
+                account.realMoney += entry.getRealDelta();
+                account.temporaryMoney += entry.getTemporaryDelta();
+                account.unflushed++;
+                account.version++;
+                return true;
+            }
+        }
+    }
+
+    // Deshace en memoria un débito de una transacción revertida; nunca llegó al libro
+    private void revert(LedgerEntry entry) {
+        LedgerEntry reversal = entry.reversed();
+        Account account = accounts.get(entry.getUserId());
+        synchronized (account) {
+            account.realMoney += reversal.getRealDelta();
+            account.temporaryMoney += reversal.getTemporaryDelta();
+            account.unflushed--;
+            account.version++;
+        }
+    }
+
+    private void written(Long userId) {
+        Account account = accounts.get(userId);
+        if (account != null) {
+            synchronized (account) {
+                account.unflushed--;
+            }
+        }
+    }
+
+    // El débito ya está aplicado: al confirmar se aplican los abonos y todo pasa al libro; al revertir se deshace
+    private void onCompletion(LedgerEntry debit, List<LedgerEntry> credits, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(debit, credits);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    commit(debit, credits);
+                } else {
+                    revert(debit);
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private void commit(LedgerEntry debit, List<LedgerEntry> credits) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        entries.add(debit);
+        for (LedgerEntry credit : credits) {
+            boolean moves = Math.abs(credit.getRealDelta()) > EPSILON || Math.abs(credit.getTemporaryDelta()) > EPSILON;
+            if (moves && apply(credit, false)) {
+                entries.add(credit);
+            }
+        }
+        entries.forEach(pendingEntries::addLast);
+        if (pendingCount.addAndGet(entries.size()) >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    private Account load(Long userId) {
+        Balance balance = read(userId);
+        return balance == null ? null : new Account(balance);
+    }
+
+    private Balance read(Long userId) {
+        List<Balance> rows = jdbcTemplate.query(SELECT_BALANCE,
+                (rs, rowNum) -> new Balance(rs.getDouble("real_money"), rs.getDouble("temporary_money")), userId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
@@ -0,0 +1,38 @@
+package edu.escuelaing.arsw.puko.service;
+
+import com.azure.core.http.rest.RequestOptions;
+import com.azure.core.util.BinaryData;
+import com.azure.messaging.webpubsub.WebPubSubServiceAsyncClient;
+import com.azure.messaging.webpubsub.WebPubSubServiceClientBuilder;
+import com.azure.messaging.webpubsub.models.WebPubSubContentType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+// Envío con el cliente asíncrono de Web PubSub: el hilo que despacha no espera la respuesta HTTP
+@Component
+@ConditionalOnProperty(name = "puko.events.transport", havingValue = "webpubsub", matchIfMissing = true)
+public class WebPubSubEventTransport implements EventTransport {
+
+    private final WebPubSubServiceAsyncClient webPubSubClient;
+
+    public WebPubSubEventTransport(@Value("${webpubsub.connection-string}") String connectionString) {
+        this.webPubSubClient = new WebPubSubServiceClientBuilder()
+                .connectionString(connectionString)
+                .hub("puko")
+                .buildAsyncClient();
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String group, byte[] payload, EventEncoding encoding) {
+        WebPubSubContentType contentType = encoding == EventEncoding.CBOR
+                ? WebPubSubContentType.APPLICATION_OCTET_STREAM
+                : WebPubSubContentType.APPLICATION_JSON;
+        return webPubSubClient.sendToGroupWithResponse(group, BinaryData.fromBytes(payload), contentType,
+                        payload.length, new RequestOptions())
+                .then()
+                .toFuture();
+    }
+}
@@ -0,0 +1,68 @@
+package edu.escuelaing.arsw.puko.benchmark;
+
+import edu.escuelaing.arsw.puko.config.EncryptionEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Compara el cifrado anterior (Cipher.getInstance y SecretKeySpec en cada llamada, String <-> byte[])
+// con EncryptionEngine, para respuestas del tamaño de /available y de una puja.
+// Ejecutar: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=edu.escuelaing.arsw.puko.benchmark.EncryptionBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncryptionBenchmark {
+
+    private static final String ALGORITHM = "AES";
+
+    private static final String KEY = "0123456789abcdef";
+
+    @Param({"64", "16384"})
+    public int size;
+
+    private String text;
+
+    private byte[] bytes;
+
+    private EncryptionEngine engine;
+
+    @Setup
+    public void setUp() {
+        text = "x".repeat(size);
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+        engine = new EncryptionEngine(ALGORITHM, ALGORITHM, KEY.getBytes(StandardCharsets.UTF_8), Cipher.ENCRYPT_MODE);
+    }
+
+    @Benchmark
+    public String legacyPerCall() throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY.getBytes(), ALGORITHM));
+        return Base64.getEncoder().encodeToString(cipher.doFinal(text.getBytes()));
+    }
+
+    @Benchmark
+    public String engineString() throws GeneralSecurityException {
+        return Base64.getEncoder().encodeToString(engine.process(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public byte[] engineBytes() throws GeneralSecurityException {
+        return engine.process(bytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EncryptionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package edu.escuelaing.arsw.puko.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.escuelaing.arsw.puko.dto.EventBidUpdateDTO;
+import edu.escuelaing.arsw.puko.model.AuctionEvent;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
+import edu.escuelaing.arsw.puko.service.EventEncoding;
+import edu.escuelaing.arsw.puko.service.EventSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compara la serialización anterior (un ObjectMapper por mensaje) con los writers precompilados.
+// Ejecutar: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=edu.escuelaing.arsw.puko.benchmark.EventSerializationBenchmark
+// Con -prof gc se ve además la memoria asignada por evento; payloadBytes reporta el tamaño de cada formato.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventSerializationBenchmark {
+
+    private AuctionEvent<EventBidUpdateDTO> event;
+
+    private EventSerializer serializer;
+
+    @Setup
+    public void setUp() {
+        List<RankingEntry> ranking = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ranking.add(new RankingEntry(i, "user" + i, 1000.0 - i * 10));
+        }
+        event = new AuctionEvent<>("BID_UPDATE", new EventBidUpdateDTO(1L, 42L, 1000.0, "user0", 3, List.copyOf(ranking)));
+        serializer = new EventSerializer(new ObjectMapper());
+    }
+
+    @Benchmark
+    public String legacyMapperPerEvent() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(event);
+    }
+
+    @Benchmark
+    public byte[] sharedWriterJson() {
+        return serializer.serialize(event, EventEncoding.JSON);
+    }
+
+    @Benchmark
+    public byte[] sharedWriterCbor() {
+        return serializer.serialize(event, EventEncoding.CBOR);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public void payloadBytes(Blackhole blackhole) {
+        int json = serializer.serialize(event, EventEncoding.JSON).length;
+        int cbor = serializer.serialize(event, EventEncoding.CBOR).length;
+        System.out.printf("payload JSON=%d bytes, CBOR=%d bytes%n", json, cbor);
+        blackhole.consume(json + cbor);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+package edu.escuelaing.arsw.puko.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.escuelaing.arsw.puko.dto.EventBidDTO;
+import edu.escuelaing.arsw.puko.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Throughput del camino publicador -> dispatcher -> transporte con cada transporte local, en un portátil.
+// Cada invocación publica BATCH eventos y espera a que el transporte los haya recibido todos.
+// Ejecutar: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=edu.escuelaing.arsw.puko.benchmark.EventTransportBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventTransportBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"in-process", "recording"})
+    public String transport;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    private EventDispatcher dispatcher;
+
+    private AuctionEventPublisher publisher;
+
+    private LongSupplier delivered;
+
+    private long expected;
+
+    @Setup
+    public void setUp() {
+        EventTransport eventTransport;
+        if ("in-process".equals(transport)) {
+            InProcessEventTransport hub = new InProcessEventTransport();
+            LongAdder received = new LongAdder();
+            hub.subscribe("auctions", (payload, encoding) -> received.increment());
+            eventTransport = hub;
+            delivered = received::sum;
+        } else {
+            RecordingEventTransport recording = new RecordingEventTransport(0);
+            eventTransport = recording;
+            delivered = recording::messageCount;
+        }
+        dispatcher = new EventDispatcher(eventTransport, new SimpleMeterRegistry(), BATCH * 4, workers, 256,
+                EventDispatcher.OverflowPolicy.CALLER_RUNS, 10_000);
+        dispatcher.start();
+        publisher = new AuctionEventPublisher(dispatcher, new EventSerializer(new ObjectMapper()),
+                new ContentVersions(), false);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publishBatch() {
+        for (int i = 0; i < BATCH; i++) {
+            publisher.publishAuctionAvailableEvent("NEW_TOP_BID", new EventBidDTO(1L, i));
+        }
+        expected += BATCH;
+        while (delivered.getAsLong() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventTransportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
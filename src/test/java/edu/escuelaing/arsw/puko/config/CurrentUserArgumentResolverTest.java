@@ -0,0 +1,83 @@
+package edu.escuelaing.arsw.puko.config;
+
+import edu.escuelaing.arsw.puko.exception.UserNotFoundException;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
+import edu.escuelaing.arsw.puko.service.UserIdentityCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrentUserArgumentResolverTest {
+
+    @Mock
+    private UserIdentityCache identities;
+
+    private CurrentUserArgumentResolver resolver;
+
+    private NativeWebRequest webRequest;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        resolver = new CurrentUserArgumentResolver(identities);
+        webRequest = new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void authenticate(UserDetails principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void testJwtPrincipalResolvesWithoutLookup() {
+        authenticate(new JwtPrincipal(7L, "user@example.com", "user", List.of("USER")));
+
+        CurrentUser currentUser = resolver.resolveArgument(null, null, webRequest, null);
+
+        assertEquals(new CurrentUser(7L, "user@example.com", "user"), currentUser);
+        verifyNoInteractions(identities);
+    }
+
+    @Test
+    void testOtherPrincipalsUseIdentityCacheOncePerRequest() {
+        authenticate(User.withUsername("user@example.com").password("").roles("USER").build());
+        CurrentUser identity = new CurrentUser(7L, "user@example.com", "user");
+        when(identities.get("user@example.com")).thenReturn(identity);
+
+        assertSame(identity, resolver.resolveArgument(null, null, webRequest, null));
+        assertSame(identity, resolver.resolveArgument(null, null, webRequest, null));
+
+        verify(identities, times(1)).get("user@example.com");
+    }
+
+    @Test
+    void testUnknownUserIsRejected() {
+        authenticate(User.withUsername("ghost@example.com").password("").roles("USER").build());
+
+        assertThrows(UserNotFoundException.class, () -> resolver.resolveArgument(null, null, webRequest, null));
+    }
+
+    @Test
+    void testAnonymousRequestIsRejected() {
+        assertThrows(UserNotFoundException.class, () -> resolver.resolveArgument(null, null, webRequest, null));
+    }
+}
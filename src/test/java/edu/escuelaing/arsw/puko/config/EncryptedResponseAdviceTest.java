@@ -0,0 +1,99 @@
+package edu.escuelaing.arsw.puko.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.escuelaing.arsw.puko.dto.CursorPageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptedResponseAdviceTest {
+
+    private static final byte[] KEY = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final EncryptedBodyWriter bodyWriter = new EncryptedBodyWriter(objectMapper,
+            new EncryptionEngine("AES", "AES", KEY, Cipher.ENCRYPT_MODE));
+
+    private final EncryptedResponseAdvice advice = new EncryptedResponseAdvice(bodyWriter);
+
+    private byte[] decrypt(byte[] encrypted) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(KEY, "AES"));
+        return cipher.doFinal(encrypted);
+    }
+
+    @Test
+    void testStreamsJsonThroughCipherAndBase64() throws Exception {
+        CursorPageDTO<Map<String, Object>> page = new CursorPageDTO<>(List.of(Map.of("id", 1)), "abc");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bodyWriter.write(page, out, false);
+
+        byte[] json = decrypt(Base64.getDecoder().decode(out.toByteArray()));
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(page)), objectMapper.readTree(json));
+    }
+
+    @Test
+    void testRawModeSkipsBase64() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bodyWriter.write("{\"url\":\"wss://x\"}", out, true);
+
+        assertEquals("{\"url\":\"wss://x\"}", new String(decrypt(out.toByteArray()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testPrecomputedCiphertextIsWrittenAsIs() throws Exception {
+        EncryptedBytes cached = bodyWriter.encrypt(Map.of("id", 1));
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        bodyWriter.write(cached, raw, true);
+        bodyWriter.write(cached, encoded, false);
+
+        assertArrayEquals(cached.ciphertext(), raw.toByteArray());
+        assertEquals("{\"id\":1}", new String(decrypt(Base64.getDecoder().decode(encoded.toByteArray())),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBeforeBodyWriteWritesResponseItself() throws Exception {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+        servletRequest.addHeader(EncryptedResponseAdvice.ENCODING_HEADER, "raw");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+
+        Object result = advice.beforeBodyWrite(Map.of("id", 1), null, MediaType.APPLICATION_JSON, null,
+                new ServletServerHttpRequest(servletRequest), response);
+        response.flush();
+
+        assertNull(result);
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, servletResponse.getContentType());
+        assertEquals("{\"id\":1}", new String(decrypt(servletResponse.getContentAsByteArray()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testErrorResponsesAreNotEncrypted() {
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        servletResponse.setStatus(400);
+
+        Object result = advice.beforeBodyWrite("Token ID no válido", null, MediaType.TEXT_PLAIN, null,
+                new ServletServerHttpRequest(new MockHttpServletRequest()), new ServletServerHttpResponse(servletResponse));
+
+        assertEquals("Token ID no válido", result);
+    }
+}
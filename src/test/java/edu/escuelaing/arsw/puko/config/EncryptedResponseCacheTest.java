@@ -0,0 +1,94 @@
+package edu.escuelaing.arsw.puko.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EncryptedResponseCacheTest {
+
+    @Mock
+    private EncryptedBodyWriter bodyWriter;
+
+    private EncryptedResponseCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(bodyWriter.encrypt(any())).thenAnswer(invocation ->
+                new EncryptedBytes(invocation.getArgument(0).toString().getBytes()));
+        cache = new EncryptedResponseCache(bodyWriter, true, 100);
+    }
+
+    @Test
+    void testSameVersionEncryptsOnce() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+
+        Object first = cache.get("auction:1", 0, () -> Map.of("id", builds.incrementAndGet()));
+        Object second = cache.get("auction:1", 0, () -> Map.of("id", builds.incrementAndGet()));
+
+        assertSame(first, second);
+        assertInstanceOf(EncryptedBytes.class, first);
+        assertEquals(1, builds.get());
+        verify(bodyWriter, times(1)).encrypt(any());
+    }
+
+    @Test
+    void testNewVersionRebuildsBody() {
+        Object first = cache.get("auction:1", 0, () -> "v0");
+        Object second = cache.get("auction:1", 1, () -> "v1");
+
+        assertArrayEquals("v0".getBytes(), ((EncryptedBytes) first).ciphertext());
+        assertArrayEquals("v1".getBytes(), ((EncryptedBytes) second).ciphertext());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testOlderBodyBuiltConcurrentlyDoesNotReplaceNewerVersion() {
+        // Mientras se arma la versión 0, otra petición publica la 1; el cuerpo se arma fuera del mapa
+        Object stale = cache.get("auction:1", 0, () -> {
+            cache.get("auction:1", 1, () -> "v1");
+            return "v0";
+        });
+
+        assertArrayEquals("v1".getBytes(), ((EncryptedBytes) stale).ciphertext());
+        Object current = cache.get("auction:1", 1, () -> fail("Version 1 is cached"));
+        assertArrayEquals("v1".getBytes(), ((EncryptedBytes) current).ciphertext());
+    }
+
+    @Test
+    void testMissingBodyIsNotCached() {
+        assertNull(cache.get("auction:2", 0, () -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDisabledReturnsBodyAsIs() throws Exception {
+        EncryptedResponseCache disabled = new EncryptedResponseCache(bodyWriter, false, 100);
+
+        assertEquals("plain", disabled.get("auction:1", 0, () -> "plain"));
+        verify(bodyWriter, never()).encrypt(any());
+    }
+
+    @Test
+    void testFullCacheEvictsLeastRecentlyUsedEntry() {
+        EncryptedResponseCache small = new EncryptedResponseCache(bodyWriter, true, 2);
+
+        small.get("a", 0, () -> "a");
+        small.get("b", 0, () -> "b");
+        small.get("a", 0, () -> fail("a is cached"));
+        small.get("c", 0, () -> "c");
+
+        assertEquals(2, small.size());
+        small.get("a", 0, () -> fail("a was used after b"));
+        small.get("c", 0, () -> fail("c is cached"));
+        assertArrayEquals("b2".getBytes(), ((EncryptedBytes) small.get("b", 0, () -> "b2")).ciphertext());
+    }
+}
@@ -0,0 +1,64 @@
+package edu.escuelaing.arsw.puko.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptionEngineTest {
+
+    private static final byte[] KEY = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final EncryptionEngine encryptor = new EncryptionEngine("AES", "AES", KEY, Cipher.ENCRYPT_MODE);
+
+    private final EncryptionEngine decryptor = new EncryptionEngine("AES", "AES", KEY, Cipher.DECRYPT_MODE);
+
+    @Test
+    void testMatchesPerCallCipher() throws Exception {
+        byte[] data = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        Cipher reference = Cipher.getInstance("AES");
+        reference.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, "AES"));
+
+        assertArrayEquals(reference.doFinal(data), encryptor.process(data));
+        // El mismo Cipher del hilo se reutiliza sin arrastrar estado
+        assertArrayEquals(reference.doFinal(data), encryptor.process(data));
+        assertSame(encryptor.cipher(), encryptor.cipher());
+    }
+
+    @Test
+    void testRoundTripAcrossThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Callable<Boolean> roundTrip = () -> {
+                for (int i = 0; i < 200; i++) {
+                    byte[] data = ("payload-" + Thread.currentThread().getName() + "-" + i).getBytes(StandardCharsets.UTF_8);
+                    if (!java.util.Arrays.equals(data, decryptor.process(encryptor.process(data)))) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+            for (Future<Boolean> result : pool.invokeAll(java.util.Collections.nCopies(8, roundTrip))) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedCipherIsReplaced() throws Exception {
+        Cipher before = decryptor.cipher();
+
+        assertThrows(BadPaddingException.class, () -> decryptor.process(new byte[16]));
+
+        assertNotSame(before, decryptor.cipher());
+        byte[] data = "ok".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(data, decryptor.process(encryptor.process(data)));
+    }
+}
@@ -0,0 +1,91 @@
+package edu.escuelaing.arsw.puko.config;
+
+import edu.escuelaing.arsw.puko.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTGeneratorTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(100);
+
+    private final JWTGenerator jwtGenerator = new JWTGenerator(SECRET, verifiedTokens);
+
+    // Token sin uid ni roles, firmado con la clave de la aplicación
+    private String token(String subject, long expiresInMs) {
+        return Jwts.builder()
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMs))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    @Test
+    void testVerifyReturnsClaimsOfGeneratedToken() {
+        String token = token("user@example.com", 60_000);
+
+        Claims claims = jwtGenerator.verify(token);
+
+        assertEquals("user@example.com", claims.getSubject());
+    }
+
+    @Test
+    void testUserTokenCarriesIdAndRoles() {
+        User user = new User(7L, "user", null);
+        user.setEmail("user@example.com");
+
+        JwtPrincipal principal = JwtPrincipal.fromClaims(jwtGenerator.verify(jwtGenerator.generateToken(user)));
+
+        assertNotNull(principal);
+        assertEquals(7L, principal.getId());
+        assertEquals("user@example.com", principal.getUsername());
+        assertEquals(List.of("ROLE_USER"), principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testTokenWithoutIdHasNoPrincipal() {
+        String token = token("user@example.com", 60_000);
+
+        assertNull(JwtPrincipal.fromClaims(jwtGenerator.verify(token)));
+    }
+
+    @Test
+    void testRepeatedVerificationUsesCache() {
+        String token = token("user@example.com", 60_000);
+
+        Claims first = jwtGenerator.verify(token);
+        Claims second = jwtGenerator.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, verifiedTokens.size());
+    }
+
+    @Test
+    void testTokenSignedWithOtherKeyIsRejected() {
+        String token = Jwts.builder()
+                .subject("user@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210".getBytes()))
+                .compact();
+
+        assertThrows(RuntimeException.class, () -> jwtGenerator.verify(token));
+        assertEquals(0, verifiedTokens.size());
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        String token = token("user@example.com", -60_000);
+
+        assertThrows(AuthenticationCredentialsNotFoundException.class, () -> jwtGenerator.verify(token));
+    }
+}
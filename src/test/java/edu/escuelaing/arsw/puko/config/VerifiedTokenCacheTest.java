@@ -0,0 +1,58 @@
+package edu.escuelaing.arsw.puko.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private Claims claimsExpiringIn(long millis) {
+        return Jwts.claims().subject("user@example.com").expiration(new Date(System.currentTimeMillis() + millis)).build();
+    }
+
+    @Test
+    void testReturnsClaimsUntilExpiration() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        Claims claims = claimsExpiringIn(60_000);
+
+        cache.put("token", claims);
+
+        assertSame(claims, cache.get("token"));
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    void testExpiredEntryIsDropped() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        cache.put("token", claimsExpiringIn(-1));
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testTokensWithoutExpirationAreNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        cache.put("token", Jwts.claims().subject("user@example.com").build());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+
+        cache.put("a", claimsExpiringIn(60_000));
+        cache.put("b", claimsExpiringIn(60_000));
+        cache.put("c", claimsExpiringIn(60_000));
+
+        assertTrue(cache.size() <= 2);
+        assertNotNull(cache.get("c"));
+    }
+}
@@ -2,6 +2,7 @@ package edu.escuelaing.arsw.puko.controller;
 
 import edu.escuelaing.arsw.puko.dto.ArticleWithImageDTO;
 import edu.escuelaing.arsw.puko.model.Article;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
 import edu.escuelaing.arsw.puko.model.ImageBlob;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.service.ArticleService;
@@ -13,7 +14,6 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
@@ -33,8 +33,7 @@ class ArticleControllerTest {
     @Mock
     private UserService userService;
 
-    @Mock
-    private UserDetails userDetails;
+    private final CurrentUser currentUser = new CurrentUser(1L, "test@example.com", "testUser");
 
     @BeforeEach
     void setUp() {
@@ -51,35 +50,22 @@ class ArticleControllerTest {
 
         User user = new User();
         user.setUsername("testUser");
-        when(userDetails.getUsername()).thenReturn("testUser");
-        when(userService.findByEmail("testUser")).thenReturn(user);
+        when(userService.reference(currentUser)).thenReturn(user);
 
         Article createdArticle = new Article();
         createdArticle.setName(name);
         when(articleService.createArticle(name, images, mainImageFilename, user, initialPrice)).thenReturn(createdArticle);
 
         // Call the method
-        ResponseEntity<Article> response = articleController.createArticle(name, images, mainImageFilename, initialPrice, userDetails);
+        ResponseEntity<Article> response = articleController.createArticle(name, images, mainImageFilename, initialPrice, currentUser);
 
         // Verify results
         assertEquals(HttpStatus.CREATED.value(), response.getStatusCode().value());
         assertEquals(createdArticle, response.getBody());
-        verify(userService, times(1)).findByEmail("testUser");
+        // El usuario no se consulta: basta con la referencia
+        verify(userService, never()).findByEmail(anyString());
         verify(articleService, times(1)).createArticle(name, images, mainImageFilename, user, initialPrice);
     }
-    @Test
-    void testCreateArticle_UnauthorizedUser() {
-        when(userDetails.getUsername()).thenReturn("testUser");
-        when(userService.findByEmail("testUser")).thenReturn(null);
-
-        ResponseEntity<Article> response = articleController.createArticle("Test Article", new ArrayList<>(), "mainImage.jpg", 100.0, userDetails);
-
-        assertEquals(401, response.getStatusCode().value());
-        assertNull(response.getBody());
-        verify(userService, times(1)).findByEmail("testUser");
-        verify(articleService, never()).createArticle(anyString(), anyList(), anyString(), any(User.class), anyDouble());
-    }
-
     @Test
     void testGetMainImage_Success() {
         Long articleId = 1L;
@@ -113,7 +99,7 @@ class ArticleControllerTest {
         ArticleWithImageDTO articleWithImageDTO = new ArticleWithImageDTO();
         when(articleService.getArticleWithMainImage(articleId)).thenReturn(articleWithImageDTO);
 
-        ResponseEntity<String> response = articleController.getArticleWithMainImage(articleId);
+        ResponseEntity<ArticleWithImageDTO> response = articleController.getArticleWithMainImage(articleId);
 
         assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
         verify(articleService, times(1)).getArticleWithMainImage(articleId);
@@ -1,12 +1,17 @@
 package edu.escuelaing.arsw.puko.controller;
 
+import edu.escuelaing.arsw.puko.config.EncryptedResponseCache;
 import edu.escuelaing.arsw.puko.dto.*;
-import edu.escuelaing.arsw.puko.exception.AuctionException;
+import edu.escuelaing.arsw.puko.exception.AuctionNotFoundException;
 import edu.escuelaing.arsw.puko.model.Article;
 import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.service.ArticleService;
 import edu.escuelaing.arsw.puko.service.AuctionService;
+import edu.escuelaing.arsw.puko.service.BidSequencer;
+import edu.escuelaing.arsw.puko.service.ContentVersions;
 import edu.escuelaing.arsw.puko.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +19,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UserDetails;
 
 
 import java.time.Duration;
@@ -40,12 +44,22 @@ class AuctionControllerTest {
     private ArticleService articleService;
 
     @Mock
-    private UserDetails userDetails;
+    private BidSequencer bidSequencer;
+
+    @Mock
+    private ContentVersions contentVersions;
+
+    @Mock
+    private EncryptedResponseCache responseCache;
+
+    private final CurrentUser currentUser = new CurrentUser(1L, "test@example.com", "testUser");
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        when(userDetails.getUsername()).thenReturn("testUser");
+        // Sin caché: el cuerpo se arma en cada llamada
+        when(responseCache.get(anyString(), anyLong(), any())).thenAnswer(invocation ->
+                invocation.<java.util.function.Supplier<?>>getArgument(2).get());
     }
 
     @Test
@@ -74,12 +88,12 @@ class AuctionControllerTest {
         when(mockAuction.getStartTime()).thenReturn(LocalDateTime.now().plusMinutes(30));
 
         // Configurar mocks para servicios
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
+        when(userService.reference(currentUser)).thenReturn(mockUser);
         when(articleService.findById(1L)).thenReturn(mockArticle);
         when(auctionService.save(any(Auction.class))).thenReturn(mockAuction);
 
         // Llamar al método y verificar
-        ResponseEntity<AuctionDTO> response = auctionController.createAuction(userDetails, auctionDTO);
+        ResponseEntity<AuctionDTO> response = auctionController.createAuction(currentUser, auctionDTO);
 
         // Verificaciones
         assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -109,7 +123,7 @@ class AuctionControllerTest {
         when(auctionService.findById(1L)).thenReturn(Optional.of(mockAuction));
 
         // Llamar al método y verificar
-        ResponseEntity<String> response = auctionController.getAuction(1L);
+        ResponseEntity<Object> response = auctionController.getAuction(1L);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
@@ -122,24 +136,19 @@ class AuctionControllerTest {
         when(mockUser.getUsername()).thenReturn("testUser");
 
         // Configurar mocks
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
+        when(userService.reference(currentUser)).thenReturn(mockUser);
         when(auctionService.registerUserForAuction(1L, mockUser)).thenReturn(true);
 
         // Llamar al método y verificar
-        ResponseEntity<Void> response = auctionController.registerForAuction(userDetails, 1L);
+        ResponseEntity<Void> response = auctionController.registerForAuction(currentUser, 1L);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
+        verify(userService, never()).findByEmail(anyString());
     }
     @Test
     void testGetTopBidsSuccess() {
-        // Mock de User
-        User mockUser = mock(User.class);
-        when(mockUser.getId()).thenReturn(1L);
-        when(mockUser.getUsername()).thenReturn("testUser");
-
         // Configurar mocks
-        when(auctionService.getTopBids(1L)).thenReturn(List.of(Map.entry("testUser", 200.0)));
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
+        when(auctionService.getTopBids(1L)).thenReturn(List.of(new RankingEntry(1L, "testUser", 200.0)));
 
         // Llamar al método y verificar
         ResponseEntity<List<BidRankingDTO>> response = auctionController.getTopBids(1L);
@@ -147,107 +156,123 @@ class AuctionControllerTest {
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
+        assertEquals(1L, response.getBody().get(0).getUserId());
+        assertEquals("testUser", response.getBody().get(0).getUsername());
         assertEquals(200.0, response.getBody().get(0).getAmount());
+
+        // El ranking se arma sin buscar usuarios
+        verifyNoInteractions(userService);
     }
+    @Test
+    void testGetRankingSnapshot() {
+        RankingSnapshotDTO snapshot = new RankingSnapshotDTO(1L, 4L, List.of(new RankingEntry(1L, "testUser", 200.0)));
+        when(auctionService.getRankingSnapshot(1L)).thenReturn(snapshot);
+
+        ResponseEntity<RankingSnapshotDTO> response = auctionController.getRankingSnapshot(1L);
+
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertSame(snapshot, response.getBody());
+    }
+
     @Test
     void testStartAuctionSuccess() {
         Long auctionId = 1L;
-        Article mockArticle = mock(Article.class);
-        User mockUser = mock(User.class);
-        mockUser.setId(1L);
-        Auction mockAuction = new Auction(mockUser, mockArticle, null, null);
-        mockAuction.setId(auctionId);
-
-        UserDetails userDetails6 = mock(UserDetails.class);
-        when(userDetails6.getUsername()).thenReturn("testUser");
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
-        when(auctionService.findById(auctionId)).thenReturn(Optional.of(mockAuction));
+        when(auctionService.findCreatorId(auctionId)).thenReturn(Optional.of(1L));
         when(auctionService.startAuction(auctionId)).thenReturn(true);
 
-        ResponseEntity<Void> response = auctionController.startAuction(auctionId, userDetails6);
+        ResponseEntity<Void> response = auctionController.startAuction(auctionId, currentUser);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
         verify(auctionService).startAuction(auctionId);
+        // La autorización no carga la subasta
+        verify(auctionService, never()).findById(auctionId);
     }
 
     @Test
     void testStartAuctionUserNotCreator() {
         Long auctionId = 1L;
-        Article mockArticle = mock(Article.class);
-        User mockUser = mock(User.class);
-        mockUser.setId(1L);
-        User anotherUser = mock(User.class);
-        anotherUser.setId(2L);
-        Auction mockAuction = new Auction(anotherUser, mockArticle, null, null);
-        mockAuction.setId(auctionId);
-        UserDetails userDetails5 = mock(UserDetails.class);
-        when(userDetails5.getUsername()).thenReturn("testUser");
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
-        when(auctionService.findById(auctionId)).thenReturn(Optional.of(mockAuction));
-        try{
-            auctionController.startAuction(auctionId, userDetails5);
-        }catch (AuctionException e){
-            assertEquals("No se pudo iniciar la subasta", e.getMessage()); // Forbidden
-        }
+        when(auctionService.findCreatorId(auctionId)).thenReturn(Optional.of(2L));
+
+        ResponseEntity<Void> response = auctionController.startAuction(auctionId, currentUser);
+
+        assertEquals(403, response.getStatusCode().value());
+        verify(auctionService, never()).startAuction(anyLong());
+    }
+
+    @Test
+    void testStartAuctionNotFound() {
+        when(auctionService.findCreatorId(9L)).thenReturn(Optional.empty());
+
+        assertThrows(AuctionNotFoundException.class, () -> auctionController.startAuction(9L, currentUser));
     }
 
     @Test
     void testFinalizeAuctionSuccess() throws Exception {
         Long auctionId = 1L;
-        Article mockArticle = mock(Article.class);
-        User mockUser = mock(User.class);
-        mockUser.setId(1L);
-        Auction mockAuction = new Auction(mockUser, mockArticle, null, null);
-        mockAuction.setId(auctionId);
+        when(auctionService.findCreatorId(auctionId)).thenReturn(Optional.of(1L));
 
-        UserDetails userDetails4 = mock(UserDetails.class);
-        when(userDetails4.getUsername()).thenReturn("testUser");
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
-        when(auctionService.findById(auctionId)).thenReturn(Optional.of(mockAuction));
-
-        ResponseEntity<Void> response = auctionController.finalizeAuction(auctionId, userDetails4);
+        ResponseEntity<Void> response = auctionController.finalizeAuction(auctionId, currentUser);
         assertTrue(response.getStatusCode().is2xxSuccessful());
         verify(auctionService).finalizeAuction(auctionId);
     }
 
+    @Test
+    void testFinalizeAuctionUserNotCreatorDoesNotFinalize() throws Exception {
+        Long auctionId = 1L;
+        when(auctionService.findCreatorId(auctionId)).thenReturn(Optional.of(2L));
+
+        ResponseEntity<Void> response = auctionController.finalizeAuction(auctionId, currentUser);
+
+        assertEquals(403, response.getStatusCode().value());
+        verify(auctionService, never()).finalizeAuction(anyLong());
+    }
+
     @Test
     void testGetUserAuctionsSuccess() {
-        Article mockArticle = mock(Article.class);
         User mockUser = mock(User.class);
-        mockUser.setId(1L);
-        Auction mockAuction = new Auction(mockUser, mockArticle, Duration.ofHours(1), LocalDateTime.now());
-        mockAuction.setId(1L);
+        AuctionSummaryDTO summary = new AuctionSummaryDTO(1L, 2L, "Article", 1L, Duration.ofHours(1),
+                LocalDateTime.now(), Auction.AuctionStatus.SCHEDULED, null);
 
-        UserDetails userDetails2 = mock(UserDetails.class);
-        when(userDetails2.getUsername()).thenReturn("testUser");
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
-        when(auctionService.findByCreator(mockUser)).thenReturn(List.of(mockAuction));
+        when(userService.reference(currentUser)).thenReturn(mockUser);
+        when(auctionService.findAuctionSummariesByCreator(mockUser, null, 20))
+                .thenReturn(new CursorPageDTO<>(List.of(summary), null));
 
-        ResponseEntity<List<AuctionDTO>> response = auctionController.getUserAuctions(userDetails2);
+        ResponseEntity<CursorPageDTO<AuctionSummaryDTO>> response = auctionController.getUserAuctions(currentUser, null, 20);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals(mockAuction.getId(), response.getBody().get(0).getId());
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals(1L, response.getBody().getItems().get(0).getId());
     }
 
     @Test
     void testGetRegisteredAuctionsSuccess() {
-        Article mockArticle = mock(Article.class);
         User mockUser = mock(User.class);
-        mockUser.setId(1L);
-        Auction mockAuction = new Auction(mockUser, mockArticle, Duration.ofHours(1), LocalDateTime.now());
-        mockAuction.setId(1L);
+        AuctionSummaryDTO summary = new AuctionSummaryDTO(1L, 2L, "Article", 3L, Duration.ofHours(1),
+                LocalDateTime.now(), Auction.AuctionStatus.ACTIVE, 150.0);
 
-        UserDetails userDetails3 = mock(UserDetails.class);
-        when(userDetails3.getUsername()).thenReturn("testUser");
-        when(userService.findByEmail("testUser")).thenReturn(mockUser);
-        when(auctionService.findByRegisteredUser(mockUser)).thenReturn(List.of(mockAuction));
+        when(userService.reference(currentUser)).thenReturn(mockUser);
+        when(auctionService.findAuctionSummariesByRegisteredUser(mockUser, "cursor", 20))
+                .thenReturn(new CursorPageDTO<>(List.of(summary), "next"));
 
-        ResponseEntity<List<AuctionDTO>> response = auctionController.getRegisteredAuctions(userDetails3);
+        ResponseEntity<CursorPageDTO<AuctionSummaryDTO>> response = auctionController.getRegisteredAuctions(currentUser, "cursor", 20);
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals(mockAuction.getId(), response.getBody().get(0).getId());
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals(1L, response.getBody().getItems().get(0).getId());
+        assertEquals(150.0, response.getBody().getItems().get(0).getTopBid());
+        assertEquals("next", response.getBody().getNextCursor());
+    }
+
+    @Test
+    void testGetAvailableAuctionsCachesByNormalizedPage() {
+        when(auctionService.findAvailableAuctionSummaries(any(), anyInt()))
+                .thenReturn(new CursorPageDTO<>(List.of(), null));
+
+        auctionController.getAvailableAuctions(null, 500);
+        auctionController.getAvailableAuctions("", 100);
+
+        // Sin cursor y con un tamaño fuera de rango se usa la misma entrada que la primera página de 100
+        verify(responseCache, times(2)).get(eq("available:" + PageCursor.FIRST.encode() + ":100"), anyLong(), any());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package edu.escuelaing.arsw.puko.controller;
 
+import edu.escuelaing.arsw.puko.dto.CursorPageDTO;
+import edu.escuelaing.arsw.puko.model.CurrentUser;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.service.UserService;
 import org.junit.jupiter.api.Test;
@@ -9,7 +11,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.List;
 
@@ -83,16 +84,17 @@ class UserControllerTest {
         User mockUser1 = new User( "user1", "user1@example.com", "password1");
         User mockUser2 = new User( "user2", "user2@example.com", "password2");
 
-        when(userService.getAllUsers()).thenReturn(List.of(mockUser1, mockUser2));
+        when(userService.getAllUsers(null, 20)).thenReturn(new CursorPageDTO<>(List.of(mockUser1, mockUser2), null));
 
         // Ejecutar la prueba
-        ResponseEntity<List<User>> response = userController.getAllUsers();
+        ResponseEntity<CursorPageDTO<User>> response = userController.getAllUsers(null, 20);
 
         // Validaciones
         assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
 
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
+        assertEquals(2, response.getBody().getItems().size());
+        assertNull(response.getBody().getNextCursor());
     }
 
     @Test
@@ -113,16 +115,15 @@ class UserControllerTest {
 
     @Test
     void testGetUserByUsernameSuccess() {
-        // Mock de UserDetails y User
-        UserDetails userDetails = mock(UserDetails.class);
-        when(userDetails.getUsername()).thenReturn("test@example.com");
+        // Usuario actual y User
+        CurrentUser currentUser = new CurrentUser(1L, "test@example.com", "testUser");
 
         User mockUser = new User( "testUser", "test@example.com", "password123");
 
         when(userService.getUserByEmail("test@example.com")).thenReturn(mockUser);
 
         // Ejecutar la prueba
-        ResponseEntity<String> response = userController.getUserByUsername(userDetails);
+        ResponseEntity<User> response = userController.getUserByUsername(currentUser);
 
         // Validaciones
         assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
@@ -132,14 +133,13 @@ class UserControllerTest {
 
     @Test
     void testGetUserByUsernameNotFound() {
-        // Mock de UserDetails y servicio
-        UserDetails userDetails = mock(UserDetails.class);
-        when(userDetails.getUsername()).thenReturn("nonexistent@example.com");
+        // Usuario actual y servicio
+        CurrentUser currentUser = new CurrentUser(2L, "nonexistent@example.com", "ghost");
 
         when(userService.getUserByEmail("nonexistent@example.com")).thenThrow(new RuntimeException("User not found"));
 
         // Ejecutar la prueba
-        ResponseEntity<String> response = userController.getUserByUsername(userDetails);
+        ResponseEntity<User> response = userController.getUserByUsername(currentUser);
 
         // Validaciones
         assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCode().value());
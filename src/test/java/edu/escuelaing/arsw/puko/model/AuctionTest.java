@@ -12,7 +12,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class AuctionTest {
 
@@ -65,7 +65,8 @@ class AuctionTest {
         auction.startAuction();
 
         assertTrue(auction.placeBid(mockBidder, 150.0), "Bid should be placed successfully");
-        assertEquals(1, auction.getBids().size(), "There should be one bid");
+        assertEquals(150.0, auction.getBidBook().getHighestBid().orElseThrow().getAmount(), "The bid should be the highest one");
+        assertEquals(mockBidder, auction.getCurrentLeader().orElseThrow(), "Bidder should be the leader");
     }
 
     @Test
@@ -79,7 +80,7 @@ class AuctionTest {
         auction.startAuction();
 
         assertFalse(auction.placeBid(mockBidder, 150.0), "Bid should fail due to insufficient funds");
-        assertTrue(auction.getBids().isEmpty(), "No bids should be added");
+        assertTrue(auction.getBidBook().isEmpty(), "No bids should be accepted");
     }
 
     @Test
@@ -107,7 +108,7 @@ class AuctionTest {
     @Test
     void testGetCurrentLeaderNoLeader() {
         // Crear usuarios de ejemplo
-        User user1 = new User("user1", "password", "user1@example.com");
+        User user1 = new User(1L, "user1", "password");
 
         // Crear subasta y simular estado sin leaderboard
         Auction auction2 = new Auction();
@@ -139,8 +140,8 @@ class AuctionTest {
     @Test
     void testPlaceBid_HigherBidThanCurrent() {
         // Crear usuario y creador de la subasta
-        User user = new User("user1", "password", "user1@example.com");
-        User previousHighestUser = new User("user2", "password", "user2@example.com");
+        User user = new User(1L, "user1", "password");
+        User previousHighestUser = new User(2L, "user2", "password");
 
         // Crear subasta y establecer el líder de la puja
         Auction auctionhigh = new Auction();
@@ -153,7 +154,7 @@ class AuctionTest {
         Bid previousHighestBid = new Bid();
         previousHighestBid.setUser(previousHighestUser);
         previousHighestBid.setAmount(200.0);  // Puja más alta actual
-        auctionhigh.getBids().add(previousHighestBid);
+        auctionhigh.getBidBook().accept(previousHighestBid);
 
         // Establecer dinero disponible para los usuarios
         user.setTemporaryMoney(300.0);  // Dinero disponible para el usuario
@@ -178,8 +179,8 @@ class AuctionTest {
     @Test
     void testPlaceBid_LowerBidThanCurrent() {
         // Crear usuario y creador de la subasta
-        User user = new User("user1", "password", "user1@example.com");
-        User previousHighestUser = new User("user2", "password", "user2@example.com");
+        User user = new User(1L, "user1", "password");
+        User previousHighestUser = new User(2L, "user2", "password");
 
         // Crear subasta y establecer el líder de la puja
         Auction auctionlower = new Auction();
@@ -192,7 +193,7 @@ class AuctionTest {
         Bid previousHighestBid = new Bid();
         previousHighestBid.setUser(previousHighestUser);
         previousHighestBid.setAmount(200.0);  // Puja más alta actual
-        auctionlower.getBids().add(previousHighestBid);
+        auctionlower.getBidBook().accept(previousHighestBid);
 
         // Establecer dinero disponible para los usuarios
         user.setTemporaryMoney(300.0);  // Dinero disponible para el usuario
@@ -210,4 +211,43 @@ class AuctionTest {
         // Verificar que el dinero del usuario que intentó hacer la puja no se ha descontado
         assertEquals(300.0, user.getTemporaryMoney(), "El dinero del usuario no debe descontarse.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPlaceBidWithFundsDoesNotTouchUserBalances() throws AuctionException {
+        User creator = new User(1L, "creator", "password");
+        User bidder = new User(2L, "bidder", "password");
+        bidder.setTemporaryMoney(300.0);
+        BidFunds funds = mock(BidFunds.class);
+        when(funds.hold(any(), eq(bidder), eq(150.0), isNull())).thenReturn(true);
+
+        Auction walletAuction = new Auction(5L, creator, new Article(), Duration.ofMinutes(10), LocalDateTime.now());
+        walletAuction.setStatus(Auction.AuctionStatus.ACTIVE);
+        walletAuction.setRegisteredUsers(Set.of(bidder));
+        walletAuction.setFunds(funds);
+
+        assertTrue(walletAuction.placeBid(bidder, 150.0));
+        assertEquals(300.0, bidder.getTemporaryMoney(), "La billetera lleva la reserva, no la entidad");
+        assertEquals(150.0, walletAuction.getBidBook().getHighestBid().orElseThrow().getAmount());
+
+        walletAuction.finalizeAuction();
+
+        verify(funds).settle(walletAuction, walletAuction.getBidBook().getHighestBid().orElseThrow());
+        assertEquals(10000000.0, creator.getRealMoney(), "El cobro lo hace la billetera, no la entidad");
+    }
+
+    @Test
+    void testPlaceBidWithFundsRejectedWhenHoldFails() {
+        User bidder = new User(2L, "bidder", "password");
+        BidFunds funds = mock(BidFunds.class);
+        when(funds.hold(any(), any(), anyDouble(), any())).thenReturn(false);
+
+        Auction walletAuction = new Auction(5L, new User(1L, "creator", "password"), new Article(),
+                Duration.ofMinutes(10), LocalDateTime.now());
+        walletAuction.setStatus(Auction.AuctionStatus.ACTIVE);
+        walletAuction.setRegisteredUsers(Set.of(bidder));
+        walletAuction.setFunds(funds);
+
+        assertFalse(walletAuction.placeBid(bidder, 150.0));
+        assertTrue(walletAuction.getBidBook().isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package edu.escuelaing.arsw.puko.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidBookTest {
+
+    private Bid bid(User user, double amount) {
+        Bid bid = new Bid();
+        bid.setUser(user);
+        bid.setAmount(amount);
+        return bid;
+    }
+
+    @Test
+    void testAcceptTracksHighestAndBestPerUser() {
+        User user1 = new User(1L, "user1", "password");
+        User user2 = new User(2L, "user2", "password");
+
+        BidBook book = new BidBook();
+        List.of(bid(user1, 100.0), bid(user2, 150.0), bid(user1, 200.0)).forEach(book::accept);
+
+        assertEquals(200.0, book.getHighestBid().orElseThrow().getAmount());
+        assertEquals(user1, book.getLeader().orElseThrow());
+        assertEquals(200.0, book.getBestBid(1L).orElseThrow());
+        assertEquals(150.0, book.getBestBid(2L).orElseThrow());
+    }
+
+    @Test
+    void testAcceptKeepsHighestWhenLower() {
+        User user1 = new User(1L, "user1", "password");
+        User user2 = new User(2L, "user2", "password");
+        BidBook book = new BidBook();
+
+        book.accept(bid(user1, 300.0));
+        book.accept(bid(user2, 250.0));
+
+        assertEquals(user1, book.getLeader().orElseThrow());
+        assertEquals(250.0, book.getBestBid(2L).orElseThrow());
+    }
+
+    @Test
+    void testEmptyBook() {
+        BidBook book = new BidBook();
+
+        assertTrue(book.isEmpty());
+        assertTrue(book.getLeader().isEmpty());
+        assertTrue(book.getBestBid(1L).isEmpty());
+        assertTrue(book.getTopBids().isEmpty());
+    }
+
+    @Test
+    void testTopBidsCarryUserIdAndName() {
+        User user1 = new User(1L, "user1", "password");
+        User user2 = new User(2L, "user2", "password");
+        BidBook book = new BidBook();
+
+        book.register(user2);
+        book.accept(bid(user1, 120.0));
+
+        List<RankingEntry> top = book.getTopBids();
+        assertEquals(new RankingEntry(1L, "user1", 120.0), top.get(0));
+        assertEquals(new RankingEntry(2L, "user2", 0.0), top.get(1));
+    }
+}
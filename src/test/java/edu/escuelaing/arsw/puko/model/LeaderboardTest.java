@@ -0,0 +1,72 @@
+package edu.escuelaing.arsw.puko.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    @Test
+    void testUpdateOrdersByAmount() {
+        Leaderboard leaderboard = new Leaderboard();
+
+        leaderboard.update(1L, "user1", 100.0);
+        leaderboard.update(2L, "user2", 300.0);
+        leaderboard.update(3L, "user3", 200.0);
+
+        List<RankingEntry> top = leaderboard.getTop();
+        assertEquals(List.of("user2", "user3", "user1"), top.stream().map(RankingEntry::username).toList());
+        assertEquals(300.0, top.get(0).amount());
+    }
+
+    @Test
+    void testUpdateKeepsBestBidPerUser() {
+        Leaderboard leaderboard = new Leaderboard();
+
+        assertTrue(leaderboard.update(1L, "user1", 200.0));
+        assertFalse(leaderboard.update(1L, "user1", 150.0));
+        assertTrue(leaderboard.update(1L, "user1", 250.0));
+
+        assertEquals(1, leaderboard.size());
+        assertEquals(250.0, leaderboard.getAmount(1L).orElseThrow());
+    }
+
+    @Test
+    void testRegisterDoesNotLowerExistingPosition() {
+        Leaderboard leaderboard = new Leaderboard();
+
+        leaderboard.update(1L, "user1", 120.0);
+        leaderboard.register(1L, "user1");
+        leaderboard.register(2L, "user2");
+
+        assertEquals(120.0, leaderboard.getAmount(1L).orElseThrow());
+        assertEquals(0.0, leaderboard.getAmount(2L).orElseThrow());
+        assertEquals("user2", leaderboard.getTop().get(1).username());
+    }
+
+    @Test
+    void testTopIsLimitedAndImmutable() {
+        Leaderboard leaderboard = new Leaderboard();
+        for (int i = 0; i < 15; i++) {
+            leaderboard.update(i, "user" + i, i * 10.0);
+        }
+
+        List<RankingEntry> top = leaderboard.getTop();
+        assertEquals(Leaderboard.TOP_SIZE, top.size());
+        assertEquals("user14", top.get(0).username());
+        assertThrows(UnsupportedOperationException.class, top::clear);
+    }
+
+    @Test
+    void testTiesKeepArrivalOrder() {
+        Leaderboard leaderboard = new Leaderboard();
+
+        leaderboard.update(1L, "user1", 100.0);
+        leaderboard.update(2L, "user2", 100.0);
+
+        assertEquals("user1", leaderboard.getTop().get(0).username());
+        assertEquals("user2", leaderboard.getTop().get(1).username());
+    }
+}
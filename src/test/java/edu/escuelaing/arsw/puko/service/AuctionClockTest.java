@@ -0,0 +1,98 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.dto.EventEndTimeDTO;
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuctionClockTest {
+
+    @Mock
+    private AuctionEventPublisher auctionEventPublisher;
+
+    @Mock
+    private AuctionRepository auctionRepository;
+
+    private AuctionClock clock;
+
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clock = new AuctionClock(auctionEventPublisher, auctionRepository, true);
+        start = LocalDateTime.now();
+    }
+
+    private long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void testActivationPublishesEndTimeOnce() {
+        AuctionTimeline timeline = new AuctionTimeline(1L, Auction.AuctionStatus.ACTIVE, start, Duration.ofMinutes(5));
+
+        clock.onTimelineChanged(timeline);
+        clock.onTimelineChanged(timeline);
+
+        ArgumentCaptor<EventEndTimeDTO> captor = ArgumentCaptor.forClass(EventEndTimeDTO.class);
+        verify(auctionEventPublisher, times(1)).publishTimeEvent(eq(1L), eq(AuctionClock.AUCTION_END_TIME), captor.capture());
+        assertEquals(millis(start.plusMinutes(5)), captor.getValue().getEndTime());
+        assertEquals(1, clock.activeAuctions());
+    }
+
+    @Test
+    void testFinalizationPublishesEarlyEndAndForgetsAuction() {
+        clock.onTimelineChanged(new AuctionTimeline(1L, Auction.AuctionStatus.ACTIVE, start, Duration.ofMinutes(5)));
+
+        clock.onTimelineChanged(new AuctionTimeline(1L, Auction.AuctionStatus.FINISHED, start, Duration.ofMinutes(5)));
+
+        ArgumentCaptor<EventEndTimeDTO> captor = ArgumentCaptor.forClass(EventEndTimeDTO.class);
+        verify(auctionEventPublisher, times(2)).publishTimeEvent(eq(1L), eq(AuctionClock.AUCTION_END_TIME), captor.capture());
+        assertTrue(captor.getValue().getEndTime() < millis(start.plusMinutes(5)));
+        assertEquals(0, clock.activeAuctions());
+    }
+
+    @Test
+    void testBeaconsComeFromMemory() {
+        when(auctionRepository.findOpenTimelines()).thenReturn(List.of(
+                new AuctionTimeline(1L, Auction.AuctionStatus.ACTIVE, start, Duration.ofMinutes(5)),
+                new AuctionTimeline(2L, Auction.AuctionStatus.SCHEDULED, start.plusHours(1), Duration.ofMinutes(5))));
+        clock.load();
+
+        clock.publishBeacons();
+        clock.publishBeacons();
+
+        verify(auctionRepository, times(1)).findOpenTimelines();
+        verify(auctionEventPublisher, times(2)).publishTimeEvent(eq(1L), eq(AuctionClock.AUCTION_END_TIME), any());
+        verify(auctionEventPublisher, never()).publishTimeEvent(eq(2L), anyString(), any());
+        verify(auctionEventPublisher, never()).publishRemainingTimeEvent(anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    void testLegacyModeKeepsRemainingTime() {
+        clock = new AuctionClock(auctionEventPublisher, auctionRepository, false);
+        clock.onTimelineChanged(new AuctionTimeline(1L, Auction.AuctionStatus.ACTIVE, start, Duration.ofMinutes(5)));
+
+        clock.publishRemainingTimes();
+        clock.publishBeacons();
+
+        verify(auctionEventPublisher).publishRemainingTimeEvent(eq(1L), eq("REMAINING_TIME"), longThat(s -> s > 290 && s <= 300));
+        verify(auctionEventPublisher, never()).publishTimeEvent(anyLong(), anyString(), any());
+        verifyNoInteractions(auctionRepository);
+    }
+}
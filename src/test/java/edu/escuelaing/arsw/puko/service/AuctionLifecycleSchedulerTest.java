@@ -0,0 +1,103 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuctionLifecycleSchedulerTest {
+
+    @Mock
+    private AuctionService auctionService;
+
+    @Mock
+    private AuctionRepository auctionRepository;
+
+    private AuctionLifecycleScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        scheduler = new AuctionLifecycleScheduler(auctionService, auctionRepository, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testOverdueDeadlinesLoadedAtStartupFireImmediately() throws Exception {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(5);
+        when(auctionRepository.findOpenTimelines()).thenReturn(List.of(
+                new AuctionTimeline(1L, Auction.AuctionStatus.SCHEDULED, past, Duration.ofHours(1)),
+                new AuctionTimeline(2L, Auction.AuctionStatus.ACTIVE, past, Duration.ofMinutes(1))));
+
+        scheduler.start();
+
+        verify(auctionService, timeout(1000)).activateIfDue(1L);
+        verify(auctionService, timeout(1000)).finalizeIfDue(2L);
+        verify(auctionRepository, times(1)).findOpenTimelines();
+    }
+
+    @Test
+    void testDeadlineFiresWhenDue() throws Exception {
+        when(auctionRepository.findOpenTimelines()).thenReturn(List.of());
+        scheduler.start();
+
+        scheduler.onTimelineChanged(new AuctionTimeline(3L, Auction.AuctionStatus.ACTIVE,
+                LocalDateTime.now(), Duration.ofMillis(200)));
+
+        verify(auctionService, after(100).never()).finalizeIfDue(3L);
+        verify(auctionService, timeout(1000)).finalizeIfDue(3L);
+    }
+
+    @Test
+    void testRescheduleReplacesPreviousDeadline() throws Exception {
+        when(auctionRepository.findOpenTimelines()).thenReturn(List.of());
+        scheduler.start();
+
+        // El inicio se adelantó: el plazo original (en una hora) ya no debe ejecutarse
+        scheduler.onTimelineChanged(new AuctionTimeline(4L, Auction.AuctionStatus.SCHEDULED,
+                LocalDateTime.now().plusHours(1), Duration.ofHours(1)));
+        scheduler.onTimelineChanged(new AuctionTimeline(4L, Auction.AuctionStatus.SCHEDULED,
+                LocalDateTime.now().minusSeconds(1), Duration.ofHours(1)));
+
+        verify(auctionService, timeout(1000).times(1)).activateIfDue(4L);
+    }
+
+    @Test
+    void testFinishedAuctionClearsDeadline() {
+        scheduler.onTimelineChanged(new AuctionTimeline(5L, Auction.AuctionStatus.ACTIVE,
+                LocalDateTime.now(), Duration.ofHours(1)));
+        assertEquals(1, scheduler.pendingDeadlines());
+
+        scheduler.onTimelineChanged(new AuctionTimeline(5L, Auction.AuctionStatus.FINISHED,
+                LocalDateTime.now(), Duration.ofHours(1)));
+
+        assertEquals(0, scheduler.pendingDeadlines());
+    }
+
+    @Test
+    void testFailedTransitionIsRetried() throws Exception {
+        when(auctionRepository.findOpenTimelines()).thenReturn(List.of());
+        doThrow(new RuntimeException("db down")).doNothing().when(auctionService).finalizeIfDue(6L);
+        scheduler.start();
+
+        scheduler.onTimelineChanged(new AuctionTimeline(6L, Auction.AuctionStatus.ACTIVE,
+                LocalDateTime.now().minusMinutes(1), Duration.ofSeconds(1)));
+
+        verify(auctionService, timeout(1000).times(2)).finalizeIfDue(6L);
+    }
+}
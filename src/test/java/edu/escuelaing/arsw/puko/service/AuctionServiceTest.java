@@ -1,16 +1,29 @@
 package edu.escuelaing.arsw.puko.service;
 
+import edu.escuelaing.arsw.puko.dto.AuctionSummaryDTO;
+import edu.escuelaing.arsw.puko.dto.CursorPageDTO;
+import edu.escuelaing.arsw.puko.dto.EventWinnerDTO;
+import edu.escuelaing.arsw.puko.dto.PageCursor;
+import edu.escuelaing.arsw.puko.dto.RankingSnapshotDTO;
 import edu.escuelaing.arsw.puko.exception.AuctionException;
 import edu.escuelaing.arsw.puko.exception.AuctionNotFoundException;
 import edu.escuelaing.arsw.puko.model.Article;
 import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.Bid;
+import edu.escuelaing.arsw.puko.model.BidBook;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import edu.escuelaing.arsw.puko.repository.BidRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -27,6 +40,24 @@ class AuctionServiceTest {
     @Mock
     private AuctionEventPublisher auctionEventPublisher;
 
+    @Mock
+    private BidBookRegistry bidBookRegistry;
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @Mock
+    private BidWriteBehind bidWriteBehind;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private BidEventCoalescer bidEventCoalescer;
+
+    @Mock
+    private WalletService walletService;
+
     @InjectMocks
     private AuctionService auctionService;
 
@@ -93,10 +124,23 @@ class AuctionServiceTest {
         // Crear un mock de User
         User userPlaceBid = mock(User.class);
 
+        // Libro de pujas compartido de la subasta
+        when(userPlaceBid.getId()).thenReturn(2L);
+        when(userPlaceBid.getUsername()).thenReturn("bidder");
+        BidBook bidBook = new BidBook();
+        Bid acceptedBid = new Bid();
+        acceptedBid.setUser(userPlaceBid);
+        acceptedBid.setAmount(100);
+
         // Configurar el comportamiento esperado para la subasta
         when(auctionPlaceBid.getId()).thenReturn(1L);  // Mock para el ID de la subasta
+        when(auctionPlaceBid.getCreator()).thenReturn(user);
         when(auctionPlaceBid.getStatus()).thenReturn(Auction.AuctionStatus.ACTIVE);  // La subasta debe estar activa
-        when(auctionPlaceBid.placeBid(userPlaceBid, 100)).thenReturn(true);  // La puja es exitosa
+        when(bidBookRegistry.attach(auctionPlaceBid)).thenReturn(bidBook);
+        when(auctionPlaceBid.placeBid(userPlaceBid, 100)).thenAnswer(invocation -> {
+            bidBook.accept(acceptedBid);
+            return true;  // La puja es exitosa
+        });
 
         // Configurar el comportamiento esperado para la búsqueda de la subasta
         when(auctionRepository.findAuctionForUpdate(auctionPlaceBid.getId())).thenReturn(Optional.of(auctionPlaceBid));
@@ -107,27 +151,44 @@ class AuctionServiceTest {
         // Verificar que el resultado sea el esperado
         assertTrue(result);
 
-        // Verificar que se haya guardado la subasta y se haya publicado el evento
-        verify(auctionRepository, times(2)).save(auctionPlaceBid);
+        // Verificar que solo se guarde la puja nueva, no la subasta completa
+        verify(bidRepository, times(1)).save(acceptedBid);
+        verify(auctionRepository, never()).save(auctionPlaceBid);
+
+        // Los eventos de la puja pasan por la ventana de agrupación
+        verify(bidEventCoalescer, times(1)).offer(1L, 100, "bidder", bidBook.getTopBids());
+        verify(auctionEventPublisher, never()).publishAuctionEvent(anyLong(), anyString(), any());
 
     }
 
     @Test
-    void testFindActiveAuctions() {
-        // Crear un objeto Auction para simularlo
-        Auction auctionFindActive = mock(Auction.class);
-        auctionFindActive.setId(1L);
-        auctionFindActive.setStatus(Auction.AuctionStatus.ACTIVE);
-
-        // Mockear la búsqueda de subastas activas
-        when(auctionRepository.findByStatus(Auction.AuctionStatus.ACTIVE)).thenReturn(List.of(auctionFindActive));
-
-        // Llamar al servicio
-        List<Auction> activeAuctions = auctionService.findActiveAuctions();
-
-        assertFalse(activeAuctions.isEmpty());
-        assertEquals(1, activeAuctions.size());
-        assertEquals(auctionFindActive.getId(), activeAuctions.get(0).getId());
+    void testPlaceBidWithWalletDefersOnlyTheBid() {
+        Auction auctionPlaceBid = mock(Auction.class);
+        User userPlaceBid = new User(2L, "bidder", "password");
+        BidBook bidBook = new BidBook();
+        Bid acceptedBid = new Bid();
+        acceptedBid.setUser(userPlaceBid);
+        acceptedBid.setAmount(100);
+
+        when(walletService.isEnabled()).thenReturn(true);
+        when(bidWriteBehind.isEnabled()).thenReturn(true);
+        when(auctionPlaceBid.getId()).thenReturn(1L);
+        when(auctionPlaceBid.getCreator()).thenReturn(user);
+        when(auctionPlaceBid.getStatus()).thenReturn(Auction.AuctionStatus.ACTIVE);
+        when(bidBookRegistry.attach(auctionPlaceBid)).thenReturn(bidBook);
+        when(auctionPlaceBid.placeBid(userPlaceBid, 100)).thenAnswer(invocation -> {
+            bidBook.accept(acceptedBid);
+            return true;
+        });
+        when(auctionRepository.findAuctionForUpdate(1L)).thenReturn(Optional.of(auctionPlaceBid));
+
+        assertTrue(auctionService.placeBid(1L, userPlaceBid, 100));
+
+        // Los saldos los reserva la billetera: la escritura diferida solo recibe la puja
+        verify(auctionPlaceBid).setFunds(walletService);
+        verify(bidWriteBehind).deferBid(acceptedBid);
+        verify(bidWriteBehind, never()).defer(any(), any(), any());
+        verify(bidWriteBehind, never()).applyPending(any(), any(), any());
     }
 
     @Test
@@ -149,13 +210,14 @@ class AuctionServiceTest {
         // Mockear la subasta
         Auction auctionFinalizeAuction = mock(Auction.class);
         when(auctionRepository.findById(auctionFinalizeAuction.getId())).thenReturn(Optional.of(auctionFinalizeAuction));
+        when(auctionFinalizeAuction.getCreator()).thenReturn(user);
         doNothing().when(auctionFinalizeAuction).finalizeAuction();
 
         // Llamar al servicio
         assertDoesNotThrow(() -> auctionService.finalizeAuction(auctionFinalizeAuction.getId()));
 
         verify(auctionRepository, times(1)).save(auctionFinalizeAuction);
-        verify(auctionEventPublisher, times(1)).publishAuctionEvent(auctionFinalizeAuction.getId(), "AUCTION_FINALIZED", auction.getWinner());
+        verify(auctionEventPublisher, times(1)).publishAuctionEvent(auctionFinalizeAuction.getId(), "AUCTION_FINALIZED", EventWinnerDTO.of(auction.getWinner()));
     }
 
     @Test
@@ -170,42 +232,124 @@ class AuctionServiceTest {
         assertEquals(auctionById.getId(), foundAuction.get().getId());
     }
     @Test
-    void testUpdateAuctionStatuses() throws AuctionException {
+    void testActivateIfDue() {
         Auction auctionUpdate = mock(Auction.class);
-        User userUpdate = mock(User.class);
         // Preparar mocks
         LocalDateTime now = LocalDateTime.now();
-        when(auctionRepository.findByStatus(Auction.AuctionStatus.SCHEDULED)).thenReturn(List.of(auctionUpdate));
-        when(auctionRepository.findByStatus(Auction.AuctionStatus.ACTIVE)).thenReturn(List.of(auctionUpdate));
+        when(auctionRepository.findById(1L)).thenReturn(Optional.of(auctionUpdate));
+        when(auctionUpdate.getId()).thenReturn(1L);
+        when(auctionUpdate.getStatus()).thenReturn(Auction.AuctionStatus.SCHEDULED);
         when(auctionUpdate.getStartTime()).thenReturn(now.minusMinutes(1));  // Simulando que la subasta ha comenzado
         when(auctionUpdate.getDuration()).thenReturn(Duration.ofMinutes(5));
-        when(auctionUpdate.getWinner()).thenReturn(userUpdate);
 
-        // Simular métodos que se llaman durante la ejecución
-        auctionService.updateAuctionStatuses();  // Llamar al método programado
+        auctionService.activateIfDue(1L);
 
         // Verificar interacciones
-        verify(auctionRepository, times(1)).save(auctionUpdate);  // Se espera que se guarde la subasta una vez al cambiar el estado y otra al finalizar
+        verify(auctionUpdate, times(1)).setStatus(Auction.AuctionStatus.ACTIVE);
+        verify(bidBookRegistry, times(1)).rebuild(auctionUpdate);
+        verify(auctionRepository, times(1)).save(auctionUpdate);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(AuctionTimeline.class));
         verify(auctionEventPublisher, times(1)).publishAuctionEvent(anyLong(), anyString(), any());
         verify(auctionEventPublisher, times(1)).publishAuctionAvailableEvent(anyString(), anyLong());
     }
+
+    @Test
+    void testActivateIfDue_NotYetDue() {
+        Auction auctionUpdate = mock(Auction.class);
+        when(auctionRepository.findById(1L)).thenReturn(Optional.of(auctionUpdate));
+        when(auctionUpdate.getStatus()).thenReturn(Auction.AuctionStatus.SCHEDULED);
+        when(auctionUpdate.getStartTime()).thenReturn(LocalDateTime.now().plusMinutes(10));
+
+        auctionService.activateIfDue(1L);
+
+        // Se reprograma con el horario actual en lugar de activarla
+        verify(auctionUpdate, never()).setStatus(any());
+        verify(applicationEventPublisher, times(1)).publishEvent(any(AuctionTimeline.class));
+        verify(auctionRepository, never()).save(any());
+    }
+
+    @Test
+    void testFinalizeIfDue() throws AuctionException {
+        Auction auctionUpdate = mock(Auction.class);
+        User userUpdate = mock(User.class);
+        when(auctionRepository.findById(1L)).thenReturn(Optional.of(auctionUpdate));
+        when(auctionUpdate.getId()).thenReturn(1L);
+        when(auctionUpdate.getStatus()).thenReturn(Auction.AuctionStatus.ACTIVE);
+        when(auctionUpdate.getStartTime()).thenReturn(LocalDateTime.now().minusMinutes(10));
+        when(auctionUpdate.getDuration()).thenReturn(Duration.ofMinutes(5));
+        when(userUpdate.getId()).thenReturn(2L);
+        when(userUpdate.getUsername()).thenReturn("winner");
+        when(auctionUpdate.getWinner()).thenReturn(userUpdate);
+        when(auctionUpdate.getCreator()).thenReturn(user);
+
+        auctionService.finalizeIfDue(1L);
+
+        verify(auctionUpdate, times(1)).finalizeAuction();
+        // El ganador y el creador cambian de saldo: se invalidan como al finalizar a mano
+        verify(applicationEventPublisher).publishEvent(BalancesChanged.of(List.of(1L, 2L)));
+        verify(bidBookRegistry, times(1)).evict(1L);
+        verify(auctionRepository, times(1)).save(auctionUpdate);
+        verify(auctionEventPublisher, times(1)).publishAuctionEvent(1L, "AUCTION_FINALIZED", new EventWinnerDTO(2L, "winner"));
+    }
+
+    @Test
+    void testFinalizeIfDue_AlreadyFinished() throws AuctionException {
+        Auction auctionUpdate = mock(Auction.class);
+        when(auctionRepository.findById(1L)).thenReturn(Optional.of(auctionUpdate));
+        when(auctionUpdate.getStatus()).thenReturn(Auction.AuctionStatus.FINISHED);
+
+        auctionService.finalizeIfDue(1L);
+
+        verify(auctionUpdate, never()).finalizeAuction();
+        verifyNoInteractions(auctionEventPublisher);
+    }
     @Test
     void testGetTopBids() {
         // Simular el comportamiento del repositorio
         Auction auctionTopBids = mock(Auction.class);
 
+        User bidder = new User(2L, "User1", "password");
+        Bid bid = new Bid();
+        bid.setUser(bidder);
+        bid.setAmount(100.0);
+        BidBook bidBook = new BidBook();
+        bidBook.accept(bid);
+
         when(auctionRepository.findById(1L)).thenReturn(Optional.of(auctionTopBids));
-        when(auctionTopBids.getTopBids()).thenReturn(List.of(new AbstractMap.SimpleEntry<>("User1", 100.0)));
+        when(bidBookRegistry.attach(auctionTopBids)).thenReturn(bidBook);
 
         // Llamar al método que se va a probar
-        List<Map.Entry<String, Double>> topBids = auctionService.getTopBids(1L);
+        List<RankingEntry> topBids = auctionService.getTopBids(1L);
 
         // Verificar que el resultado es correcto
         assertNotNull(topBids);
         assertEquals(1, topBids.size());
-        assertEquals("User1", topBids.get(0).getKey());
-        assertEquals(100.0, topBids.get(0).getValue());
+        assertEquals(2L, topBids.get(0).userId());
+        assertEquals("User1", topBids.get(0).username());
+        assertEquals(100.0, topBids.get(0).amount());
     }
+
+    @Test
+    void testGetTopBids_FromRegistry() {
+        BidBook bidBook = new BidBook();
+        bidBook.register(new User(2L, "User1", "password"));
+        when(bidBookRegistry.find(1L)).thenReturn(Optional.of(bidBook));
+
+        List<RankingEntry> topBids = auctionService.getTopBids(1L);
+
+        // Las subastas en curso se sirven desde memoria sin ir al repositorio
+        assertEquals(1, topBids.size());
+        verify(auctionRepository, never()).findById(anyLong());
+    }
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetRankingSnapshot_UsesCoalescerSequence() {
+        RankingSnapshotDTO snapshot = new RankingSnapshotDTO(1L, 3L, List.of(new RankingEntry(2L, "bidder", 100.0)));
+        when(bidEventCoalescer.snapshot(eq(1L), any(java.util.function.Supplier.class))).thenReturn(snapshot);
+
+        assertSame(snapshot, auctionService.getRankingSnapshot(1L));
+    }
+
     @Test
     void testGetRemainingTime() {
         Auction auctionRemainingTime = mock(Auction.class);
@@ -221,54 +365,7 @@ class AuctionServiceTest {
         assertNotNull(remainingTime);
         assertEquals(Duration.ofMinutes(10), remainingTime);
     }
-    @Test
-    void testFindByCreator() {
-        // Simular comportamiento del repositorio
-        Auction auctionFindCreator = mock(Auction.class);
-        User userCreator = mock(User.class);
-        when(auctionRepository.findByCreator(userCreator)).thenReturn(List.of(auctionFindCreator));
-        when(auctionFindCreator.getTopBids()).thenReturn(Collections.emptyList());  // Suponiendo que no hay pujas
-
-        // Llamar al método
-        List<Auction> auctions = auctionService.findByCreator(userCreator);
-
-        // Verificar que se haya inicializado el ranking de pujas
-        assertFalse(auctions.isEmpty());
-        verify(auctionFindCreator, times(1)).initializeBidRanking();
-    }
-
-    @Test
-    void testFindByRegisteredUser() {
-        // Simular comportamiento del repositorio
-        Auction auctionRegisteredUser = mock(Auction.class);
-        User userRegistered = mock(User.class);
-        when(auctionRepository.findByRegisteredUser(userRegistered)).thenReturn(List.of(auctionRegisteredUser));
-        when(auctionRegisteredUser.getTopBids()).thenReturn(Collections.emptyList());
-
-        // Llamar al método
-        List<Auction> auctions = auctionService.findByRegisteredUser(userRegistered);
-
-        // Verificar que se haya inicializado el ranking de pujas
-        assertFalse(auctions.isEmpty());
-        verify(auctionRegisteredUser, times(1)).initializeBidRanking();
-    }
-    @Test
-    void testFindAvailableAuctions() {
-        Auction auctionAvaliable = mock(Auction.class);
-
-        // Simular que el repositorio devuelve una lista de subastas disponibles
-        when(auctionRepository.findAvailableAuctions()).thenReturn(List.of(auctionAvaliable));
-
-        // Llamar al método que se va a probar
-        List<Auction> availableAuctions = auctionService.findAvailableAuctions();
 
-        // Verificar que las subastas no estén vacías
-        assertFalse(availableAuctions.isEmpty());
-        assertEquals(1, availableAuctions.size());
-
-        // Verificar que el ranking de pujas se haya inicializado
-        verify(auctionAvaliable, times(1)).initializeBidRanking();
-    }
     @Test
     void testGetRegisteredUsers() {
         Auction auctionRegisteredUsers = mock(Auction.class);
@@ -289,8 +386,8 @@ class AuctionServiceTest {
         assertEquals(1, registeredUsers.size());
         assertTrue(registeredUsers.contains(userRegistered));
 
-        // Verificar que se inicializó el ranking de pujas
-        verify(auctionRegisteredUsers, times(1)).initializeBidRanking();
+        // Consultar los registrados no arma el ranking
+        verify(bidBookRegistry, never()).attach(auctionRegisteredUsers);
     }
 
     @Test
@@ -303,5 +400,45 @@ class AuctionServiceTest {
         // Verificar que se lanza la excepción correspondiente
         assertThrows(AuctionNotFoundException.class, () -> auctionService.getRegisteredUsers(auctionId));
     }
-}
 
+    @Test
+    void testFindActiveAuctionSummaries_UsesLiveTopBid() {
+        AuctionSummaryDTO summary = new AuctionSummaryDTO(1L, 2L, "Article", 3L, Duration.ofHours(1),
+                LocalDateTime.now(), Auction.AuctionStatus.ACTIVE, 100.0);
+        when(auctionRepository.findSummariesByStatus(Auction.AuctionStatus.ACTIVE,
+                PageCursor.FIRST.startTime(), 0L, Limit.of(21))).thenReturn(List.of(summary));
+
+        // Puja aceptada en memoria que aún no llega a la base de datos
+        Bid pending = new Bid();
+        pending.setUser(new User(4L, "bidder", "password"));
+        pending.setAmount(180.0);
+        BidBook bidBook = new BidBook();
+        bidBook.accept(pending);
+        when(bidBookRegistry.find(1L)).thenReturn(Optional.of(bidBook));
+
+        CursorPageDTO<AuctionSummaryDTO> page = auctionService.findActiveAuctionSummaries(null, 20);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(180.0, page.getItems().get(0).getTopBid());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testFindAuctionSummariesByCreator_Keyset() {
+        User creator = new User(3L, "creator", "password");
+        LocalDateTime startTime = LocalDateTime.of(2024, 11, 1, 10, 0);
+        AuctionSummaryDTO first = new AuctionSummaryDTO(1L, 2L, "Article", 3L, Duration.ofHours(1),
+                startTime, Auction.AuctionStatus.SCHEDULED, null);
+        AuctionSummaryDTO second = new AuctionSummaryDTO(4L, 5L, "Other", 3L, Duration.ofHours(1),
+                startTime, Auction.AuctionStatus.SCHEDULED, null);
+        when(auctionRepository.findSummariesByCreatorId(3L, PageCursor.FIRST.startTime(), 0L, Limit.of(2)))
+                .thenReturn(List.of(first, second));
+
+        CursorPageDTO<AuctionSummaryDTO> page = auctionService.findAuctionSummariesByCreator(creator, null, 1);
+
+        // La siguiente página continúa después de (startTime, id) de la última fila
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getItems().get(0).getTopBid());
+        assertEquals(PageCursor.after(startTime, 1L), PageCursor.decode(page.getNextCursor()));
+    }
+}
@@ -0,0 +1,132 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.Bid;
+import edu.escuelaing.arsw.puko.model.BidBook;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
+import edu.escuelaing.arsw.puko.model.User;
+import edu.escuelaing.arsw.puko.repository.AuctionRepository;
+import edu.escuelaing.arsw.puko.repository.BidRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BidBookRegistryTest {
+
+    @Mock
+    private BidWriteBehind bidWriteBehind;
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @Mock
+    private AuctionRepository auctionRepository;
+
+    @InjectMocks
+    private BidBookRegistry bidBookRegistry;
+
+    private Auction auction;
+
+    private User bidder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bidder = new User(2L, "bidder", "password");
+        auction = new Auction(1L, new User(1L, "creator", "password"));
+        auction.setStatus(Auction.AuctionStatus.ACTIVE);
+    }
+
+    private BidRepository.BestBid bestBid(long userId, String username, double amount) {
+        BidRepository.BestBid bestBid = mock(BidRepository.BestBid.class);
+        when(bestBid.getUserId()).thenReturn(userId);
+        when(bestBid.getUsername()).thenReturn(username);
+        when(bestBid.getAmount()).thenReturn(amount);
+        return bestBid;
+    }
+
+    private AuctionRepository.RegisteredUser registeredUser(long userId, String username) {
+        AuctionRepository.RegisteredUser registeredUser = mock(AuctionRepository.RegisteredUser.class);
+        when(registeredUser.getUserId()).thenReturn(userId);
+        when(registeredUser.getUsername()).thenReturn(username);
+        return registeredUser;
+    }
+
+    @Test
+    void testAttachLoadsBookFromAggregateQueries() {
+        Bid highest = new Bid();
+        highest.setUser(bidder);
+        highest.setAmount(300.0);
+        BidRepository.BestBid best = bestBid(2L, "bidder", 300.0);
+        AuctionRepository.RegisteredUser bidderRow = registeredUser(2L, "bidder");
+        AuctionRepository.RegisteredUser watcherRow = registeredUser(3L, "watcher");
+        when(bidRepository.findFirstByAuctionIdOrderByAmountDescIdAsc(1L)).thenReturn(Optional.of(highest));
+        when(bidRepository.findBestBidsByAuctionId(1L)).thenReturn(List.of(best));
+        when(auctionRepository.findRegisteredUsersById(1L)).thenReturn(List.of(bidderRow, watcherRow));
+
+        BidBook book = bidBookRegistry.attach(auction);
+
+        assertSame(book, auction.getBidBook());
+        assertEquals(300.0, book.getHighestBid().orElseThrow().getAmount());
+        assertEquals(List.of(new RankingEntry(2L, "bidder", 300.0), new RankingEntry(3L, "watcher", 0.0)),
+                book.getTopBids());
+    }
+
+    @Test
+    void testAttachReusesBookOfOpenAuction() {
+        BidBook first = bidBookRegistry.attach(auction);
+        BidBook second = bidBookRegistry.attach(new Auction(1L, auction.getCreator()));
+
+        assertSame(first, second);
+        verify(bidRepository, times(1)).findBestBidsByAuctionId(1L);
+        assertTrue(bidBookRegistry.find(1L).isPresent());
+    }
+
+    @Test
+    void testAttachKeepsBookPublishedWhileLoading() {
+        Auction started = new Auction(1L, auction.getCreator());
+        started.setStatus(Auction.AuctionStatus.ACTIVE);
+        // Otra petición publica el libro mientras esta aún consulta la base de datos
+        when(bidWriteBehind.pendingBids(1L))
+                .thenAnswer(invocation -> {
+                    bidBookRegistry.rebuild(started);
+                    return List.of();
+                })
+                .thenReturn(List.of());
+
+        BidBook book = bidBookRegistry.attach(auction);
+
+        assertSame(started.getBidBook(), book);
+        assertSame(book, bidBookRegistry.find(1L).orElseThrow());
+    }
+
+    @Test
+    void testAttachDoesNotKeepFinishedAuctions() {
+        auction.setStatus(Auction.AuctionStatus.FINISHED);
+
+        bidBookRegistry.attach(auction);
+
+        assertTrue(bidBookRegistry.find(1L).isEmpty());
+    }
+
+    @Test
+    void testAttachIncludesPendingBids() {
+        Bid pending = new Bid();
+        pending.setUser(bidder);
+        pending.setAmount(500.0);
+        when(bidWriteBehind.pendingBids(1L)).thenReturn(List.of(pending));
+
+        BidBook book = bidBookRegistry.attach(auction);
+
+        assertSame(pending, book.getHighestBid().orElseThrow());
+        assertEquals(500.0, book.getBestBid(2L).orElseThrow());
+    }
+}
@@ -0,0 +1,174 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.dto.EventBidUpdateDTO;
+import edu.escuelaing.arsw.puko.dto.RankingSnapshotDTO;
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.AuctionTimeline;
+import edu.escuelaing.arsw.puko.model.RankingChange;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BidEventCoalescerTest {
+
+    @Mock
+    private AuctionEventPublisher auctionEventPublisher;
+
+    private BidEventCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        coalescer = new BidEventCoalescer(auctionEventPublisher, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    private List<RankingEntry> ranking(double amount) {
+        return List.of(new RankingEntry(2L, "bidder", amount));
+    }
+
+    @Test
+    void testBurstIsMergedIntoOneUpdate() {
+        coalescer.offer(1L, 100.0, "bidder", ranking(100.0));
+        coalescer.offer(1L, 150.0, "bidder", ranking(150.0));
+        coalescer.offer(1L, 200.0, "bidder", ranking(200.0));
+
+        ArgumentCaptor<EventBidUpdateDTO> captor = ArgumentCaptor.forClass(EventBidUpdateDTO.class);
+        verify(auctionEventPublisher, timeout(1000).times(1))
+                .publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), captor.capture());
+        verify(auctionEventPublisher, timeout(1000).times(1)).publishAuctionAvailableEvent(eq("NEW_TOP_BID"), any());
+        EventBidUpdateDTO update = captor.getValue();
+        assertEquals(1, update.getSequence());
+        assertEquals(200.0, update.getAmount());
+        assertEquals(3, update.getBids());
+        assertEquals(1, update.getRankingSize());
+        assertEquals(List.of(new RankingChange(0, 2L, "bidder", 200.0)), update.getChanges());
+    }
+
+    @Test
+    void testLateOlderBidDoesNotOverwriteHigherOne() {
+        coalescer.offer(1L, 200.0, "leader", ranking(200.0));
+        // Commit atrasado de una puja anterior
+        coalescer.offer(1L, 150.0, "bidder", ranking(150.0));
+
+        ArgumentCaptor<EventBidUpdateDTO> captor = ArgumentCaptor.forClass(EventBidUpdateDTO.class);
+        verify(auctionEventPublisher, timeout(1000).times(1))
+                .publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), captor.capture());
+        assertEquals(200.0, captor.getValue().getAmount());
+        assertEquals("leader", captor.getValue().getLeader());
+        assertEquals(2, captor.getValue().getBids());
+
+        // Tampoco en una ventana posterior
+        coalescer.offer(1L, 120.0, "bidder", ranking(120.0));
+        verify(auctionEventPublisher, after(200).times(1))
+                .publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), any());
+    }
+
+    @Test
+    void testUpdatesCarryOnlyChangedPositions() {
+        RankingEntry leader = new RankingEntry(2L, "bidder", 200.0);
+        RankingEntry second = new RankingEntry(3L, "other", 150.0);
+        RankingEntry third = new RankingEntry(4L, "late", 100.0);
+        coalescer.offer(1L, 200.0, "bidder", List.of(leader, second, third));
+        verify(auctionEventPublisher, timeout(1000).times(1)).publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), any());
+
+        // "late" supera a "other": cambian las posiciones 1 y 2, la 0 se mantiene
+        RankingEntry lateRaised = new RankingEntry(4L, "late", 180.0);
+        coalescer.offer(1L, 200.0, "bidder", List.of(leader, lateRaised, second));
+
+        ArgumentCaptor<EventBidUpdateDTO> captor = ArgumentCaptor.forClass(EventBidUpdateDTO.class);
+        verify(auctionEventPublisher, timeout(1000).times(2))
+                .publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), captor.capture());
+        EventBidUpdateDTO delta = captor.getAllValues().get(1);
+        assertEquals(3, delta.getRankingSize());
+        assertEquals(List.of(new RankingChange(1, 4L, "late", 180.0), new RankingChange(2, 3L, "other", 150.0)),
+                delta.getChanges());
+    }
+
+    @Test
+    void testSnapshotMatchesLastPublishedSequence() {
+        assertEquals(0, coalescer.snapshot(1L, () -> ranking(50.0)).getSequence());
+        assertEquals(ranking(50.0), coalescer.snapshot(1L, () -> ranking(50.0)).getRanking());
+
+        coalescer.offer(1L, 100.0, "bidder", ranking(100.0));
+        verify(auctionEventPublisher, timeout(1000).times(1)).publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), any());
+
+        RankingSnapshotDTO snapshot = coalescer.snapshot(1L, () -> ranking(999.0));
+        assertEquals(1, snapshot.getSequence());
+        assertEquals(ranking(100.0), snapshot.getRanking());
+    }
+
+    @Test
+    void testSequenceIncreasesAcrossWindows() {
+        coalescer.offer(1L, 100.0, "bidder", ranking(100.0));
+        verify(auctionEventPublisher, timeout(1000).times(1)).publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), any());
+
+        coalescer.offer(1L, 120.0, "bidder", ranking(120.0));
+
+        ArgumentCaptor<EventBidUpdateDTO> captor = ArgumentCaptor.forClass(EventBidUpdateDTO.class);
+        verify(auctionEventPublisher, timeout(1000).times(2))
+                .publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), captor.capture());
+        assertEquals(List.of(1L, 2L), captor.getAllValues().stream().map(EventBidUpdateDTO::getSequence).toList());
+    }
+
+    @Test
+    void testFinishedAuctionFlushesPendingWindow() {
+        coalescer = new BidEventCoalescer(auctionEventPublisher, 60_000);
+        coalescer.offer(1L, 100.0, "bidder", ranking(100.0));
+
+        coalescer.onTimelineChanged(new AuctionTimeline(1L, Auction.AuctionStatus.FINISHED,
+                LocalDateTime.now().minusMinutes(5), Duration.ofMinutes(5)));
+
+        verify(auctionEventPublisher, times(1)).publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), any());
+    }
+
+    @Test
+    void testLateBidAfterFinishDoesNotRestartSequence() {
+        coalescer.offer(1L, 100.0, "bidder", ranking(100.0));
+        verify(auctionEventPublisher, timeout(1000).times(1)).publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), any());
+
+        coalescer.onTimelineChanged(new AuctionTimeline(1L, Auction.AuctionStatus.FINISHED,
+                LocalDateTime.now().minusMinutes(5), Duration.ofMinutes(5)));
+        // El hook de commit de una puja anterior a la finalización llega tarde
+        coalescer.offer(1L, 120.0, "bidder", ranking(120.0));
+
+        verify(auctionEventPublisher, after(100).times(1)).publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), any());
+        RankingSnapshotDTO snapshot = coalescer.snapshot(1L, () -> ranking(999.0));
+        assertEquals(1, snapshot.getSequence());
+        assertEquals(ranking(100.0), snapshot.getRanking());
+    }
+
+    @Test
+    void testZeroWindowSendsEachBidAsDelta() {
+        coalescer = new BidEventCoalescer(auctionEventPublisher, 0);
+
+        RankingEntry other = new RankingEntry(3L, "other", 50.0);
+        coalescer.offer(1L, 100.0, "bidder", List.of(new RankingEntry(2L, "bidder", 100.0), other));
+        coalescer.offer(1L, 150.0, "bidder", List.of(new RankingEntry(2L, "bidder", 150.0), other));
+
+        ArgumentCaptor<EventBidUpdateDTO> captor = ArgumentCaptor.forClass(EventBidUpdateDTO.class);
+        verify(auctionEventPublisher, times(2)).publishAuctionEvent(eq(1L), eq(BidEventCoalescer.BID_UPDATE), captor.capture());
+        verify(auctionEventPublisher, times(2)).publishAuctionAvailableEvent(eq("NEW_TOP_BID"), any());
+        verify(auctionEventPublisher, never()).publishAuctionEvent(anyLong(), eq("RANKING_UPDATED"), any());
+        EventBidUpdateDTO second = captor.getAllValues().get(1);
+        assertEquals(2, second.getSequence());
+        assertEquals(1, second.getBids());
+        assertEquals(List.of(new RankingChange(0, 2L, "bidder", 150.0)), second.getChanges());
+    }
+}
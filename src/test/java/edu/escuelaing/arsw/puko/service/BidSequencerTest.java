@@ -0,0 +1,108 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BidSequencerTest {
+
+    @Mock
+    private AuctionService auctionService;
+
+    private BidSequencer bidSequencer;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User(1L, "testuser", "password");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bidSequencer.shutdown();
+    }
+
+    @Test
+    void testSubmitRunsInlineWhenDisabled() {
+        bidSequencer = new BidSequencer(auctionService, false, 10, 1);
+        when(auctionService.placeBid(1L, user, 100.0)).thenReturn(true);
+
+        CompletableFuture<Boolean> result = bidSequencer.submit(1L, user, 100.0);
+
+        assertTrue(result.isDone());
+        assertTrue(result.join());
+        verify(auctionService, times(1)).placeBid(1L, user, 100.0);
+    }
+
+    @Test
+    void testSubmitProcessesBidsInOrder() throws Exception {
+        bidSequencer = new BidSequencer(auctionService, true, 100, 2);
+        List<Double> processed = Collections.synchronizedList(new ArrayList<>());
+        when(auctionService.placeBid(eq(1L), eq(user), anyDouble())).thenAnswer(invocation -> {
+            processed.add(invocation.getArgument(2));
+            return true;
+        });
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            results.add(bidSequencer.submit(1L, user, i * 10.0));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(50, processed.size());
+        for (int i = 0; i < processed.size(); i++) {
+            assertEquals((i + 1) * 10.0, processed.get(i));
+        }
+    }
+
+    @Test
+    void testSubmitDropsIdleLane() throws Exception {
+        bidSequencer = new BidSequencer(auctionService, true, 10, 1);
+        when(auctionService.placeBid(1L, user, 100.0)).thenReturn(true);
+
+        assertTrue(bidSequencer.submit(1L, user, 100.0).get(5, TimeUnit.SECONDS));
+        // El trabajador retira la cola al terminar el turno
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bidSequencer.activeLanes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(0, bidSequencer.activeLanes());
+        // Una puja posterior crea una cola nueva
+        assertTrue(bidSequencer.submit(1L, user, 100.0).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmitFailsWhenQueueIsFull() throws Exception {
+        bidSequencer = new BidSequencer(auctionService, true, 1, 1);
+        CompletableFuture<Boolean> release = new CompletableFuture<>();
+        when(auctionService.placeBid(eq(1L), eq(user), anyDouble())).thenAnswer(invocation -> release.get());
+
+        CompletableFuture<Boolean> first = bidSequencer.submit(1L, user, 100.0);
+        // Esperar a que el trabajador tome la primera puja
+        while (bidSequencer.pendingBids(1L) > 0) {
+            Thread.sleep(5);
+        }
+        bidSequencer.submit(1L, user, 200.0);
+        CompletableFuture<Boolean> rejected = bidSequencer.submit(1L, user, 300.0);
+
+        assertTrue(rejected.isCompletedExceptionally());
+        release.complete(true);
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,182 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.Article;
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.Bid;
+import edu.escuelaing.arsw.puko.model.BidsDiscarded;
+import edu.escuelaing.arsw.puko.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BidWriteBehindTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BidWriteBehind bidWriteBehind;
+
+    private Auction auction;
+    private User creator;
+    private User bidder;
+    private User previousBidder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bidWriteBehind = new BidWriteBehind(jdbcTemplate, transactionManager, applicationEventPublisher, meterRegistry, true, 500, 2);
+        ReflectionTestUtils.setField(bidWriteBehind, "entityManager", entityManager);
+
+        creator = new User(1L, "creator", "password");
+        bidder = new User(2L, "bidder", "password");
+        previousBidder = new User(3L, "previous", "password");
+        bidder.setTemporaryMoney(1000.0);
+        previousBidder.setTemporaryMoney(1000.0);
+        creator.setTemporaryMoney(1000.0);
+
+        auction = new Auction(10L, creator, new Article(), Duration.ofHours(1), LocalDateTime.now());
+        auction.setRegisteredUsers(Set.of(bidder, previousBidder));
+    }
+
+    private Bid bid(User user, double amount) {
+        Bid bid = new Bid();
+        bid.setAuction(auction);
+        bid.setUser(user);
+        bid.setAmount(amount);
+        bid.setBidTime(LocalDateTime.now());
+        return bid;
+    }
+
+    @Test
+    void testDeferRecordsBidAndDetachesUsers() {
+        Bid previous = bid(previousBidder, 100.0);
+        Bid accepted = bid(bidder, 150.0);
+
+        bidWriteBehind.defer(auction, accepted, previous);
+
+        assertEquals(1, bidWriteBehind.pendingBids(10L).size());
+        verify(entityManager).detach(creator);
+        verify(entityManager).detach(bidder);
+        verify(entityManager).detach(previousBidder);
+    }
+
+    @Test
+    void testApplyPendingAddsUnwrittenBalanceChanges() {
+        bidWriteBehind.defer(auction, bid(bidder, 150.0), bid(previousBidder, 100.0));
+
+        bidWriteBehind.applyPending(auction, bidder, bid(previousBidder, 100.0));
+
+        assertEquals(850.0, bidder.getTemporaryMoney());
+        assertEquals(1100.0, previousBidder.getTemporaryMoney());
+        assertEquals(1050.0, creator.getTemporaryMoney());
+    }
+
+    @Test
+    void testApplyPendingDetachesUsersSoARejectedBidWritesNothing() {
+        bidWriteBehind.defer(auction, bid(bidder, 150.0), bid(previousBidder, 100.0));
+        clearInvocations(entityManager);
+
+        // Puja siguiente, que la subasta rechaza: los usuarios ya llevan los pendientes sumados
+        bidWriteBehind.applyPending(auction, previousBidder, bid(bidder, 150.0));
+
+        verify(entityManager).detach(creator);
+        verify(entityManager).detach(bidder);
+        verify(entityManager).detach(previousBidder);
+        assertEquals(1100.0, previousBidder.getTemporaryMoney());
+    }
+
+    @Test
+    void testFlushWritesBatchesAndClearsPending() {
+        bidWriteBehind.defer(auction, bid(bidder, 150.0), null);
+
+        bidWriteBehind.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), eq(500), any());
+        assertTrue(bidWriteBehind.pendingBids(10L).isEmpty());
+
+        bidWriteBehind.applyPending(auction, bidder, null);
+        assertEquals(1000.0, bidder.getTemporaryMoney());
+        // Los usuarios con saldo escrito se invalidan
+        verify(applicationEventPublisher).publishEvent(BalancesChanged.of(List.of(1L, 2L)));
+    }
+
+    @Test
+    void testFlushDeadLettersRejectedRowsAfterMaxRetries() {
+        Bid poison = bid(previousBidder, 100.0);
+        Bid accepted = bid(bidder, 150.0);
+        bidWriteBehind.defer(auction, poison, null);
+        bidWriteBehind.defer(auction, accepted, poison);
+        DataIntegrityViolationException rejected = new DataIntegrityViolationException("fk_bid_user");
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any())).thenThrow(rejected);
+        when(jdbcTemplate.update(startsWith("INSERT"), eq(10L), eq(3L), eq(100.0), any())).thenThrow(rejected);
+
+        bidWriteBehind.flush();
+        bidWriteBehind.flush();
+        assertEquals(2, bidWriteBehind.pendingBids(10L).size());
+
+        // Los saldos de pujas sin escribir no se vuelcan
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(), any());
+
+        // Tercer intento: puja por puja, la rechazada se descarta con sus saldos y la otra se escribe con los suyos
+        bidWriteBehind.flush();
+
+        assertTrue(bidWriteBehind.pendingBids(10L).isEmpty());
+        verify(jdbcTemplate).update(startsWith("INSERT"), eq(10L), eq(2L), eq(150.0), any());
+        verify(jdbcTemplate).update(startsWith("UPDATE"), eq(-150.0), eq(2L));
+        verify(jdbcTemplate).update(startsWith("UPDATE"), eq(50.0), eq(1L));
+        verify(jdbcTemplate).update(startsWith("UPDATE"), eq(100.0), eq(3L));
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE"), eq(-100.0), eq(3L));
+        assertEquals(1.0, meterRegistry.counter("puko.bids.write-behind.dead-lettered").count());
+        verify(applicationEventPublisher).publishEvent(new BidsDiscarded(Set.of(10L)));
+
+        // No queda ningún saldo pendiente de la puja descartada
+        bidWriteBehind.applyPending(auction, bidder, bid(previousBidder, 100.0));
+        assertEquals(1000.0, previousBidder.getTemporaryMoney());
+        assertEquals(1000.0, creator.getTemporaryMoney());
+    }
+
+    @Test
+    void testFlushKeepsPendingWhenDatabaseIsDown() {
+        bidWriteBehind.defer(auction, bid(bidder, 150.0), null);
+        DataAccessResourceFailureException down = new DataAccessResourceFailureException("connection refused");
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any())).thenThrow(down);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(Object[].class))).thenThrow(down);
+
+        for (int i = 0; i < 4; i++) {
+            bidWriteBehind.flush();
+        }
+
+        assertEquals(1, bidWriteBehind.pendingBids(10L).size());
+        assertEquals(0.0, meterRegistry.counter("puko.bids.write-behind.dead-lettered").count());
+    }
+}
@@ -0,0 +1,40 @@
+package edu.escuelaing.arsw.puko.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentVersionsTest {
+
+    private final ContentVersions contentVersions = new ContentVersions();
+
+    @Test
+    void testAuctionChangedRaisesItsVersion() {
+        long before = contentVersions.auction(1L);
+
+        contentVersions.auctionChanged(1L);
+        long changed = contentVersions.auction(1L);
+        contentVersions.auctionChanged(1L);
+
+        assertTrue(changed > before);
+        assertTrue(contentVersions.auction(1L) > changed);
+        assertEquals(before, contentVersions.auction(2L));
+    }
+
+    @Test
+    void testAuctionFinishedDropsCounterWithoutLoweringVersion() {
+        contentVersions.auctionChanged(1L);
+        contentVersions.auctionChanged(1L);
+        long beforeFinish = contentVersions.auction(1L);
+
+        contentVersions.auctionFinished(1L);
+
+        assertEquals(0, contentVersions.trackedAuctions());
+        // Una respuesta cacheada antes de finalizar nunca coincide con la versión nueva
+        assertTrue(contentVersions.auction(1L) > beforeFinish);
+        long finished = contentVersions.auction(1L);
+        contentVersions.auctionChanged(2L);
+        assertTrue(contentVersions.auction(2L) > finished);
+        assertEquals(finished, contentVersions.auction(1L));
+    }
+}
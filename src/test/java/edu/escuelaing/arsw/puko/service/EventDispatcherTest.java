@@ -0,0 +1,224 @@
+package edu.escuelaing.arsw.puko.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventDispatcherTest {
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch deliveries = new CountDownLatch(1);
+
+    private final EventTransport transport = (group, payload, encoding) -> {
+        delivered.add(group + ":" + new String(payload, StandardCharsets.UTF_8));
+        deliveries.countDown();
+        return CompletableFuture.completedFuture(null);
+    };
+
+    private EventDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        dispatcher.shutdown();
+    }
+
+    private void dispatch(String payload) {
+        dispatcher.dispatch("auction-1", payload.getBytes(StandardCharsets.UTF_8), EventEncoding.JSON);
+    }
+
+    private EventDispatcher dispatcher(int capacity, EventDispatcher.OverflowPolicy policy) {
+        return new EventDispatcher(transport, new SimpleMeterRegistry(), capacity, 1, 16, policy, 10_000);
+    }
+
+    @Test
+    void testDispatchOutsideTransactionIsSentByWorkers() throws InterruptedException {
+        dispatcher = dispatcher(10, EventDispatcher.OverflowPolicy.DROP_OLDEST);
+        dispatcher.start();
+
+        dispatch("{}");
+
+        assertTrue(deliveries.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("auction-1:{}"), delivered);
+    }
+
+    @Test
+    void testDispatchInsideTransactionWaitsForCommit() {
+        dispatcher = dispatcher(10, EventDispatcher.OverflowPolicy.DROP_OLDEST);
+        TransactionSynchronizationManager.initSynchronization();
+
+        dispatch("{}");
+        assertEquals(0, dispatcher.queueDepth());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, dispatcher.queueDepth());
+    }
+
+    @Test
+    void testRolledBackTransactionPublishesNothing() {
+        dispatcher = dispatcher(10, EventDispatcher.OverflowPolicy.DROP_OLDEST);
+        TransactionSynchronizationManager.initSynchronization();
+
+        dispatch("{}");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, dispatcher.queueDepth());
+    }
+
+    @Test
+    void testDropNewestWhenQueueIsFull() {
+        dispatcher = dispatcher(1, EventDispatcher.OverflowPolicy.DROP_NEWEST);
+
+        dispatch("first");
+        dispatch("second");
+
+        assertEquals(1, dispatcher.queueDepth());
+        assertEquals(1.0, dispatcher.droppedEvents());
+    }
+
+    @Test
+    void testDropOldestKeepsLatestEvent() throws InterruptedException {
+        dispatcher = dispatcher(1, EventDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        dispatch("first");
+        dispatch("second");
+        dispatcher.start();
+
+        assertTrue(deliveries.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("auction-1:second"), delivered);
+        assertEquals(1.0, dispatcher.droppedEvents());
+    }
+
+    @Test
+    void testCallerRunsSendsOldestEventToKeepOrder() {
+        dispatcher = dispatcher(1, EventDispatcher.OverflowPolicy.CALLER_RUNS);
+
+        dispatch("first");
+        dispatch("second");
+
+        assertEquals(List.of("auction-1:first"), delivered);
+        assertEquals(1, dispatcher.queueDepth());
+        assertEquals(0.0, dispatcher.droppedEvents());
+    }
+
+    @Test
+    void testCallerRunsWaitsForAPermitWhenFull() throws InterruptedException {
+        List<String> started = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> pending = new CopyOnWriteArrayList<>();
+        EventTransport slow = (group, payload, encoding) -> {
+            started.add(group + ":" + new String(payload, StandardCharsets.UTF_8));
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            pending.add(result);
+            return result;
+        };
+        dispatcher = new EventDispatcher(slow, new SimpleMeterRegistry(), 1, 1, 1,
+                EventDispatcher.OverflowPolicy.CALLER_RUNS, 10_000);
+
+        dispatch("first");
+        dispatch("second");
+        Thread publisher = new Thread(() -> dispatch("third"));
+        publisher.start();
+
+        // El único permiso lo tiene el envío de "first": quien publica espera en lugar de sumar otro envío
+        publisher.join(100);
+        assertTrue(publisher.isAlive());
+        assertEquals(List.of("auction-1:first"), started);
+
+        pending.get(0).complete(null);
+        publisher.join(1000);
+        assertFalse(publisher.isAlive());
+        assertEquals(List.of("auction-1:first", "auction-1:second"), started);
+        assertEquals(1, dispatcher.queueDepth());
+        assertEquals(0.0, dispatcher.droppedEvents());
+    }
+
+    @Test
+    void testBusyGroupHoldsOnePermit() throws InterruptedException {
+        List<String> started = new CopyOnWriteArrayList<>();
+        EventTransport silent = (group, payload, encoding) -> {
+            started.add(group + ":" + new String(payload, StandardCharsets.UTF_8));
+            return new CompletableFuture<>();
+        };
+        dispatcher = new EventDispatcher(silent, new SimpleMeterRegistry(), 10, 1, 2,
+                EventDispatcher.OverflowPolicy.DROP_OLDEST, 10_000);
+        dispatcher.start();
+
+        dispatch("first");
+        dispatch("second");
+        dispatch("third");
+        dispatcher.dispatch("auction-2", "other".getBytes(StandardCharsets.UTF_8), EventEncoding.JSON);
+
+        // Los eventos que esperan detrás del primero no toman permisos
+        assertEquals("auction-2:other", awaitStarted(started, 2));
+        assertEquals(2, dispatcher.queueDepth());
+    }
+
+    @Test
+    void testEventsOfOneGroupAreSentOneAtATimeInOrder() throws InterruptedException {
+        List<String> started = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> pending = new CopyOnWriteArrayList<>();
+        CountDownLatch secondStarted = new CountDownLatch(2);
+        EventTransport slow = (group, payload, encoding) -> {
+            started.add(group + ":" + new String(payload, StandardCharsets.UTF_8));
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            pending.add(result);
+            secondStarted.countDown();
+            return result;
+        };
+        dispatcher = new EventDispatcher(slow, new SimpleMeterRegistry(), 10, 1, 16,
+                EventDispatcher.OverflowPolicy.DROP_OLDEST, 10_000);
+        dispatcher.start();
+
+        dispatch("first");
+        dispatch("second");
+        dispatcher.dispatch("auction-2", "other".getBytes(StandardCharsets.UTF_8), EventEncoding.JSON);
+
+        // Otra subasta no espera al primer envío de auction-1
+        assertTrue(secondStarted.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("auction-1:first", "auction-2:other"), started);
+
+        pending.get(0).complete(null);
+        assertEquals("auction-1:second", awaitStarted(started, 3));
+    }
+
+    @Test
+    void testSendWithoutResponseTimesOutAndReleasesItsPermit() throws InterruptedException {
+        List<String> started = new CopyOnWriteArrayList<>();
+        EventTransport silent = (group, payload, encoding) -> {
+            started.add(group + ":" + new String(payload, StandardCharsets.UTF_8));
+            return new CompletableFuture<>();
+        };
+        dispatcher = new EventDispatcher(silent, new SimpleMeterRegistry(), 10, 1, 1,
+                EventDispatcher.OverflowPolicy.DROP_OLDEST, 50);
+        dispatcher.start();
+
+        dispatch("first");
+        dispatch("second");
+
+        assertEquals("auction-1:second", awaitStarted(started, 2));
+    }
+
+    private String awaitStarted(List<String> started, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (started.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, started.size());
+        return started.get(count - 1);
+    }
+}
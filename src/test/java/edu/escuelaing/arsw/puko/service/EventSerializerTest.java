@@ -0,0 +1,67 @@
+package edu.escuelaing.arsw.puko.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import edu.escuelaing.arsw.puko.dto.EventBidUpdateDTO;
+import edu.escuelaing.arsw.puko.dto.EventWinnerDTO;
+import edu.escuelaing.arsw.puko.model.AuctionEvent;
+import edu.escuelaing.arsw.puko.model.RankingEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final EventSerializer serializer = new EventSerializer(objectMapper);
+
+    private AuctionEvent<EventBidUpdateDTO> bidUpdate() {
+        List<RankingEntry> ranking = List.of(new RankingEntry(2L, "bidder", 200.0), new RankingEntry(3L, "other", 150.0));
+        return new AuctionEvent<>("BID_UPDATE", new EventBidUpdateDTO(1L, 7L, 200.0, "bidder", 3, ranking));
+    }
+
+    @Test
+    void testJsonKeepsEnvelopeAndAddsVersion() throws IOException {
+        JsonNode json = objectMapper.readTree(serializer.serialize(bidUpdate(), EventEncoding.JSON));
+
+        assertEquals("BID_UPDATE", json.get("eventType").asText());
+        assertEquals(AuctionEvent.VERSION, json.get("v").asInt());
+        assertEquals(7L, json.get("eventData").get("sequence").asLong());
+        assertEquals("bidder", json.get("eventData").get("ranking").get(0).get("username").asText());
+    }
+
+    @Test
+    void testCborIsSmallerAndEquivalent() throws IOException {
+        byte[] json = serializer.serialize(bidUpdate(), EventEncoding.JSON);
+        byte[] cbor = serializer.serialize(bidUpdate(), EventEncoding.CBOR);
+
+        assertTrue(cbor.length < json.length);
+        assertEquals(objectMapper.readTree(json), new ObjectMapper(new CBORFactory()).readTree(cbor));
+    }
+
+    @Test
+    void testBufferIsReusedWithoutLeakingPreviousEvent() throws IOException {
+        serializer.serialize(bidUpdate(), EventEncoding.JSON);
+
+        byte[] small = serializer.serialize(new AuctionEvent<>("AUCTION_STARTED", null), EventEncoding.JSON);
+
+        JsonNode json = objectMapper.readTree(small);
+        assertEquals("AUCTION_STARTED", json.get("eventType").asText());
+        assertTrue(json.get("eventData").isNull());
+    }
+
+    @Test
+    void testWinnerCarriesOnlyPublicFields() throws IOException {
+        byte[] payload = serializer.serialize(new AuctionEvent<>("AUCTION_FINALIZED", new EventWinnerDTO(2L, "winner")),
+                EventEncoding.JSON);
+
+        JsonNode winner = objectMapper.readTree(payload).get("eventData");
+        assertEquals(2, winner.size());
+        assertEquals("winner", winner.get("username").asText());
+    }
+}
@@ -0,0 +1,137 @@
+package edu.escuelaing.arsw.puko.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleTokenVerifierTest {
+
+    private static final String CLIENT_ID = "client-id.apps.googleusercontent.com";
+
+    private static final Instant NOW = Instant.parse("2024-11-20T12:00:00Z");
+
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    private KeyPair keyPair;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    private String idToken(String keyId, String audience, long expiresAtSeconds) throws Exception {
+        JsonWebSignature.Header header = new JsonWebSignature.Header().setAlgorithm("RS256").setKeyId(keyId);
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload()
+                .setIssuer("https://accounts.google.com")
+                .setAudience(audience)
+                .setIssuedAtTimeSeconds(NOW.getEpochSecond() - 60)
+                .setExpirationTimeSeconds(expiresAtSeconds)
+                .setEmail("user@example.com");
+        return JsonWebSignature.signUsingRsaSha256(keyPair.getPrivate(), GsonFactory.getDefaultInstance(), header, payload);
+    }
+
+    private GoogleTokenVerifier verifier(SigningKeySource source) {
+        GoogleTokenVerifier verifier = new GoogleTokenVerifier(source, null, CLIENT_ID, 60_000, clock);
+        verifier.refresh();
+        return verifier;
+    }
+
+    @Test
+    void testValidTokenReturnsPayload() throws Exception {
+        GoogleTokenVerifier verifier = verifier(() -> Map.of("k1", keyPair.getPublic()));
+
+        GoogleIdToken.Payload payload = verifier.verify(idToken("k1", CLIENT_ID, NOW.getEpochSecond() + 3600));
+
+        assertNotNull(payload);
+        assertEquals("user@example.com", payload.getEmail());
+    }
+
+    @Test
+    void testWrongAudienceOrExpiredTokenIsRejected() throws Exception {
+        GoogleTokenVerifier verifier = verifier(() -> Map.of("k1", keyPair.getPublic()));
+
+        assertNull(verifier.verify(idToken("k1", "other-client", NOW.getEpochSecond() + 3600)));
+        assertNull(verifier.verify(idToken("k1", CLIENT_ID, NOW.getEpochSecond() - 3600)));
+        assertNull(verifier.verify("not-a-token"));
+    }
+
+    @Test
+    void testTokenSignedWithUnknownKeyIsRejected() throws Exception {
+        PublicKey otherKey = KeyPairGenerator.getInstance("RSA").generateKeyPair().getPublic();
+        GoogleTokenVerifier verifier = verifier(() -> Map.of("k1", otherKey));
+
+        assertNull(verifier.verify(idToken("k1", CLIENT_ID, NOW.getEpochSecond() + 3600)));
+    }
+
+    @Test
+    void testKeysAreNotFetchedPerRequest() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        GoogleTokenVerifier verifier = verifier(() -> {
+            loads.incrementAndGet();
+            return Map.of("k1", keyPair.getPublic());
+        });
+        String token = idToken("k1", CLIENT_ID, NOW.getEpochSecond() + 3600);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(verifier.verify(token));
+        }
+        // Un kid desconocido no dispara otra descarga dentro del intervalo mínimo
+        assertNull(verifier.verify(idToken("k2", CLIENT_ID, NOW.getEpochSecond() + 3600)));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testFailedRefreshKeepsPreviousKeys() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        GoogleTokenVerifier verifier = verifier(() -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new java.io.IOException("offline");
+            }
+            return Map.of("k1", keyPair.getPublic());
+        });
+
+        verifier.refresh();
+
+        assertEquals(1, verifier.keyCount());
+        assertNotNull(verifier.verify(idToken("k1", CLIENT_ID, NOW.getEpochSecond() + 3600)));
+    }
+
+    @Test
+    void testPreloadsKeysFromJwksFile(@TempDir Path dir) throws Exception {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String jwks = "{\"keys\":[{\"kid\":\"k1\",\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\","
+                + "\"n\":\"" + encoder.encodeToString(publicKey.getModulus().toByteArray()) + "\","
+                + "\"e\":\"" + encoder.encodeToString(publicKey.getPublicExponent().toByteArray()) + "\"}]}";
+        Path file = Files.writeString(dir.resolve("google-certs.json"), jwks);
+        GoogleTokenVerifier verifier = new GoogleTokenVerifier(() -> Map.of(),
+                JwksKeySource.fromFile(new ObjectMapper(), file), CLIENT_ID, 60_000, clock);
+
+        verifier.preload();
+
+        assertEquals(1, verifier.keyCount());
+        assertNotNull(verifier.verify(idToken("k1", CLIENT_ID, NOW.getEpochSecond() + 3600)));
+    }
+}
@@ -0,0 +1,80 @@
+package edu.escuelaing.arsw.puko.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.escuelaing.arsw.puko.dto.EventBidDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InProcessEventTransportTest {
+
+    private final InProcessEventTransport transport = new InProcessEventTransport();
+
+    private byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSendFansOutToGroupSubscribersOnly() {
+        List<String> auction1 = new CopyOnWriteArrayList<>();
+        List<String> auction2 = new CopyOnWriteArrayList<>();
+        transport.subscribe("auction-1", (payload, encoding) -> auction1.add(new String(payload, StandardCharsets.UTF_8)));
+        transport.subscribe("auction-1", (payload, encoding) -> auction1.add("second:" + new String(payload, StandardCharsets.UTF_8)));
+        transport.subscribe("auction-2", (payload, encoding) -> auction2.add(new String(payload, StandardCharsets.UTF_8)));
+
+        transport.send("auction-1", bytes("{}"), EventEncoding.JSON).join();
+
+        assertEquals(List.of("{}", "second:{}"), auction1);
+        assertTrue(auction2.isEmpty());
+    }
+
+    @Test
+    void testFailingSubscriberDoesNotBlockOthers() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        transport.subscribe("auctions", (payload, encoding) -> {
+            throw new IllegalStateException("boom");
+        });
+        transport.subscribe("auctions", (payload, encoding) -> received.add("ok"));
+
+        assertDoesNotThrow(() -> transport.send("auctions", bytes("{}"), EventEncoding.JSON).join());
+        assertEquals(List.of("ok"), received);
+    }
+
+    @Test
+    void testUnsubscribeRemovesEmptyGroup() throws Exception {
+        AutoCloseable subscription = transport.subscribe("auction-1", (payload, encoding) -> { });
+        assertEquals(1, transport.subscribers("auction-1"));
+
+        subscription.close();
+
+        assertEquals(0, transport.subscribers("auction-1"));
+    }
+
+    @Test
+    void testPublisherDeliversThroughDispatcherWithoutCloudService() throws Exception {
+        EventDispatcher dispatcher = new EventDispatcher(transport, new SimpleMeterRegistry(), 100, 1, 16,
+                EventDispatcher.OverflowPolicy.DROP_OLDEST, 10_000);
+        AuctionEventPublisher publisher = new AuctionEventPublisher(dispatcher, new EventSerializer(new ObjectMapper()),
+                new ContentVersions(), false);
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<String> received = new CopyOnWriteArrayList<>();
+        transport.subscribe("auctions", (payload, encoding) -> {
+            received.add(new String(payload, StandardCharsets.UTF_8));
+            delivered.countDown();
+        });
+        dispatcher.start();
+
+        publisher.publishAuctionAvailableEvent("NEW_TOP_BID", new EventBidDTO(1L, 150.0));
+
+        assertTrue(delivered.await(1, TimeUnit.SECONDS));
+        assertTrue(received.get(0).contains("\"eventType\":\"NEW_TOP_BID\""));
+        dispatcher.shutdown();
+    }
+}
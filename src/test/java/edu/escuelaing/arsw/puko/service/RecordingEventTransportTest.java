@@ -0,0 +1,38 @@
+package edu.escuelaing.arsw.puko.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordingEventTransportTest {
+
+    @Test
+    void testCountsMessagesAndBytes() {
+        RecordingEventTransport transport = new RecordingEventTransport(10);
+
+        transport.send("auction-1", new byte[]{1, 2, 3}, EventEncoding.CBOR);
+        transport.send("auctions", new byte[]{4, 5}, EventEncoding.JSON);
+
+        assertEquals(2, transport.messageCount());
+        assertEquals(5, transport.byteCount());
+        assertEquals(List.of("auction-1", "auctions"),
+                transport.recentEvents().stream().map(RecordingEventTransport.RecordedEvent::group).toList());
+    }
+
+    @Test
+    void testKeepsOnlyRetainedEventsAndResets() {
+        RecordingEventTransport transport = new RecordingEventTransport(2);
+
+        for (int i = 0; i < 5; i++) {
+            transport.send("auction-" + i, new byte[]{(byte) i}, EventEncoding.JSON);
+        }
+
+        assertEquals(List.of("auction-3", "auction-4"),
+                transport.recentEvents().stream().map(RecordingEventTransport.RecordedEvent::group).toList());
+        transport.reset();
+        assertEquals(0, transport.messageCount());
+        assertTrue(transport.recentEvents().isEmpty());
+    }
+}
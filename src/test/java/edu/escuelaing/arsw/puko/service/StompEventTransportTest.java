@@ -0,0 +1,51 @@
+package edu.escuelaing.arsw.puko.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.util.MimeTypeUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+class StompEventTransportTest {
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private StompEventTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transport = new StompEventTransport(messagingTemplate);
+    }
+
+    @Test
+    void testGroupsMapToAuctionTopics() {
+        assertEquals("/topic/auction/7", StompEventTransport.destinationFor("auction-7"));
+        assertEquals("/topic/auction/7/time", StompEventTransport.destinationFor("auction-7-time"));
+        assertEquals("/topic/auctions", StompEventTransport.destinationFor("auctions"));
+        assertEquals("/topic/auction/7/bin", StompEventTransport.destinationFor("auction-7-bin"));
+        assertEquals("/topic/auction/7/time/bin", StompEventTransport.destinationFor("auction-7-time-bin"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSendsSerializedPayloadWithoutConversion() {
+        byte[] payload = "{\"eventType\":\"BID_UPDATE\"}".getBytes();
+
+        transport.send("auction-7", payload, EventEncoding.JSON).join();
+
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate).send(eq("/topic/auction/7"), captor.capture());
+        assertSame(payload, captor.getValue().getPayload());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, captor.getValue().getHeaders().get(MessageHeaders.CONTENT_TYPE));
+    }
+}
@@ -0,0 +1,107 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private User user(long id, String username) {
+        User user = new User(id, username, "password");
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+
+    @Test
+    void testIndexesByIdEmailAndUsername() {
+        UserCache cache = new UserCache(meterRegistry, true, 100, 60_000);
+        User user = user(1L, "user");
+
+        cache.put(user, cache.generation());
+
+        assertEquals(1L, cache.getById(1L).orElseThrow().getId());
+        assertEquals(1L, cache.getByEmail("user@example.com").orElseThrow().getId());
+        assertEquals(1L, cache.getByUsername("user").orElseThrow().getId());
+        assertTrue(cache.getById(2L).isEmpty());
+        assertEquals(3.0, meterRegistry.counter("puko.users.cache.hits").count());
+        assertEquals(1.0, meterRegistry.counter("puko.users.cache.misses").count());
+    }
+
+    @Test
+    void testBalanceChangesEvictUsers() {
+        UserCache cache = new UserCache(meterRegistry, true, 100, 60_000);
+        cache.put(user(1L, "user"), cache.generation());
+        cache.put(user(2L, "other"), cache.generation());
+
+        cache.onBalancesChanged(BalancesChanged.of(List.of(1L)));
+
+        assertTrue(cache.getById(1L).isEmpty());
+        assertTrue(cache.getByEmail("user@example.com").isEmpty());
+        assertTrue(cache.getById(2L).isPresent());
+    }
+
+    @Test
+    void testLoadStartedBeforeInvalidationIsNotKept() {
+        UserCache cache = new UserCache(meterRegistry, true, 100, 60_000);
+        long generation = cache.generation();
+
+        cache.evict(1L);
+        cache.put(user(1L, "user"), generation);
+
+        assertTrue(cache.getById(1L).isEmpty());
+    }
+
+    @Test
+    void testEntriesExpire() {
+        UserCache cache = new UserCache(meterRegistry, true, 100, 0);
+
+        cache.put(user(1L, "user"), cache.generation());
+
+        assertTrue(cache.getById(1L).isEmpty());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        UserCache cache = new UserCache(meterRegistry, true, 2, 60_000);
+
+        cache.put(user(1L, "a"), cache.generation());
+        cache.put(user(2L, "b"), cache.generation());
+        cache.put(user(3L, "c"), cache.generation());
+
+        assertTrue(cache.size() <= 2);
+        assertTrue(cache.getById(3L).isPresent());
+    }
+
+    @Test
+    void testDisabledCacheKeepsNothing() {
+        UserCache cache = new UserCache(meterRegistry, false, 100, 60_000);
+
+        cache.put(user(1L, "user"), cache.generation());
+
+        assertTrue(cache.getById(1L).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testReturnsCopiesSoCallersCannotChangeTheCachedUser() {
+        UserCache cache = new UserCache(meterRegistry, true, 100, 60_000);
+        User user = user(1L, "user");
+        user.setTemporaryMoney(500.0);
+        cache.put(user, cache.generation());
+
+        user.setTemporaryMoney(100.0);
+        User first = cache.getById(1L).orElseThrow();
+        first.setTemporaryMoney(0.0);
+
+        assertNotSame(user, first);
+        assertEquals(500.0, cache.getById(1L).orElseThrow().getTemporaryMoney());
+        assertEquals("user@example.com", cache.getById(1L).orElseThrow().getEmail());
+    }
+}
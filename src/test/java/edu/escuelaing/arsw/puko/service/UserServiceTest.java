@@ -1,5 +1,7 @@
 package edu.escuelaing.arsw.puko.service;
 
+import edu.escuelaing.arsw.puko.dto.CursorPageDTO;
+import edu.escuelaing.arsw.puko.dto.PageCursor;
 import edu.escuelaing.arsw.puko.exception.UserNotFoundException;
 import edu.escuelaing.arsw.puko.model.User;
 import edu.escuelaing.arsw.puko.repository.UserRepository;
@@ -8,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Arrays;
@@ -25,6 +28,10 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    // Caché desactivada: sus lecturas devuelven Optional.empty() y todo va al repositorio
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -92,17 +99,41 @@ class UserServiceTest {
     @Test
     void getAllUsers_ShouldReturnListOfUsers() {
         List<User> users = Arrays.asList(
-                new User("user1", "password1", "user1@example.com"),
-                new User("user2", "password2", "user2@example.com")
+                new User(1L, "user1", "password1"),
+                new User(2L, "user2", "password2")
         );
 
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(users);
 
-        List<User> result = userService.getAllUsers();
+        CursorPageDTO<User> result = userService.getAllUsers(null, 20);
 
         assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(userRepository, times(1)).findAll();
+        assertEquals(2, result.getItems().size());
+        assertNull(result.getNextCursor());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllUsers_ShouldContinueFromCursor() {
+        List<User> users = Arrays.asList(
+                new User(1L, "user1", "password1"),
+                new User(2L, "user2", "password2"),
+                new User(3L, "user3", "password3")
+        );
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(users);
+
+        CursorPageDTO<User> firstPage = userService.getAllUsers(null, 2);
+
+        // Se pidió una fila de más: hay otra página que empieza después del usuario 2
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(2L, PageCursor.decode(firstPage.getNextCursor()).id());
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(List.of(users.get(2)));
+        CursorPageDTO<User> secondPage = userService.getAllUsers(firstPage.getNextCursor(), 2);
+
+        assertEquals(1, secondPage.getItems().size());
+        assertNull(secondPage.getNextCursor());
     }
     @Test
     void deleteUser_ShouldCallRepositoryDeleteById() {
@@ -0,0 +1,215 @@
+package edu.escuelaing.arsw.puko.service;
+
+import edu.escuelaing.arsw.puko.exception.AuctionException;
+import edu.escuelaing.arsw.puko.model.Article;
+import edu.escuelaing.arsw.puko.model.Auction;
+import edu.escuelaing.arsw.puko.model.BalancesChanged;
+import edu.escuelaing.arsw.puko.model.Bid;
+import edu.escuelaing.arsw.puko.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WalletServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WalletService walletService;
+
+    private Auction auction;
+    private User creator;
+    private User bidder;
+    private User previousBidder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        walletService = new WalletService(jdbcTemplate, transactionManager, applicationEventPublisher, meterRegistry, true, 500);
+
+        creator = new User(1L, "creator", "password");
+        bidder = new User(2L, "bidder", "password");
+        previousBidder = new User(3L, "previous", "password");
+        stored(1L, 1000.0, 1000.0);
+        stored(2L, 1000.0, 1000.0);
+        stored(3L, 1000.0, 1000.0);
+
+        auction = new Auction(10L, creator, new Article(), Duration.ofHours(1), LocalDateTime.now());
+        auction.setRegisteredUsers(Set.of(bidder, previousBidder));
+    }
+
+    // Saldo guardado en las columnas de User
+    private void stored(long userId, double realMoney, double temporaryMoney) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(userId))).thenAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getDouble("real_money")).thenReturn(realMoney);
+            when(rs.getDouble("temporary_money")).thenReturn(temporaryMoney);
+            RowMapper<?> mapper = invocation.getArgument(1);
+            return List.of(mapper.mapRow(rs, 0));
+        });
+    }
+
+    private Bid bid(User user, double amount) {
+        Bid bid = new Bid();
+        bid.setAuction(auction);
+        bid.setUser(user);
+        bid.setAmount(amount);
+        bid.setBidTime(LocalDateTime.now());
+        return bid;
+    }
+
+    @Test
+    void testHoldReservesAndReleasesOutbidReservation() {
+        assertTrue(walletService.hold(auction, previousBidder, 100.0, null));
+        assertTrue(walletService.hold(auction, bidder, 150.0, bid(previousBidder, 100.0)));
+
+        assertEquals(850.0, walletService.temporaryMoney(2L).orElseThrow());
+        assertEquals(1000.0, walletService.temporaryMoney(3L).orElseThrow());
+        assertEquals(1150.0, walletService.temporaryMoney(1L).orElseThrow());
+        assertEquals(150.0, walletService.reserved(10L).orElseThrow());
+        // Las entidades no se modifican
+        assertEquals(10000000.0, bidder.getTemporaryMoney());
+    }
+
+    @Test
+    void testHoldRejectedWithoutFunds() {
+        assertFalse(walletService.hold(auction, bidder, 1500.0, null));
+
+        assertEquals(1000.0, walletService.temporaryMoney(2L).orElseThrow());
+        assertTrue(walletService.reserved(10L).isEmpty());
+    }
+
+    @Test
+    void testReservationsAcrossAuctionsShareTheBalance() {
+        Auction other = new Auction(11L, creator, new Article(), Duration.ofHours(1), LocalDateTime.now());
+
+        assertTrue(walletService.hold(auction, bidder, 600.0, null));
+        assertFalse(walletService.hold(other, bidder, 600.0, null));
+        assertTrue(walletService.hold(other, bidder, 400.0, null));
+
+        assertEquals(0.0, walletService.temporaryMoney(2L).orElseThrow());
+    }
+
+    @Test
+    void testRolledBackHoldRevertsDebitAndWritesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            assertTrue(walletService.hold(auction, previousBidder, 100.0, null));
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // El débito se aplica de inmediato; el abono al creador espera al commit
+        assertEquals(900.0, walletService.temporaryMoney(3L).orElseThrow());
+        assertTrue(walletService.temporaryMoney(1L).isEmpty());
+
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(1000.0, walletService.temporaryMoney(3L).orElseThrow());
+        assertTrue(walletService.reserved(10L).isEmpty());
+        walletService.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    void testCommittedHoldCreditsAfterCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            walletService.hold(auction, previousBidder, 100.0, null);
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(1100.0, walletService.temporaryMoney(1L).orElseThrow());
+        assertEquals(100.0, walletService.reserved(10L).orElseThrow());
+    }
+
+    @Test
+    void testSettleChargesWinnerAndPaysCreator() {
+        walletService.hold(auction, bidder, 150.0, null);
+
+        walletService.settle(auction, bid(bidder, 150.0));
+
+        assertEquals(850.0, walletService.temporaryMoney(2L).orElseThrow());
+        assertTrue(walletService.reserved(10L).isEmpty());
+        assertEquals(1300.0, walletService.temporaryMoney(1L).orElseThrow());
+    }
+
+    @Test
+    void testSettleFailsWithoutRealMoney() {
+        stored(2L, 100.0, 1000.0);
+
+        assertThrows(AuctionException.class, () -> walletService.settle(auction, bid(bidder, 150.0)));
+    }
+
+    @Test
+    void testFlushWritesLedgerAndBalanceDeltas() {
+        walletService.hold(auction, bidder, 150.0, null);
+
+        walletService.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), eq(500), any());
+        verify(applicationEventPublisher).publishEvent(BalancesChanged.of(List.of(1L, 2L)));
+
+        walletService.flush();
+        verifyNoMoreInteractions(applicationEventPublisher);
+    }
+
+    @Test
+    void testReconcileCountsMismatchesAndReloadsFromStoredBalance() {
+        walletService.hold(auction, bidder, 150.0, null);
+        walletService.flush();
+        stored(1L, 1000.0, 1150.0);
+        // Otro proceso cambió la fila del postor
+        stored(2L, 1000.0, 900.0);
+
+        walletService.reconcile();
+
+        assertEquals(1.0, meterRegistry.counter("puko.wallet.reconciliation.mismatches").count());
+        assertTrue(walletService.temporaryMoney(2L).isEmpty());
+        Auction other = new Auction(11L, creator, new Article(), Duration.ofHours(1), LocalDateTime.now());
+        assertTrue(walletService.hold(other, bidder, 100.0, null));
+        assertEquals(800.0, walletService.temporaryMoney(2L).orElseThrow());
+    }
+
+    @Test
+    void testReconcileSkipsAccountsWithUnwrittenEntries() {
+        walletService.hold(auction, bidder, 150.0, null);
+
+        walletService.reconcile();
+
+        assertEquals(0.0, meterRegistry.counter("puko.wallet.reconciliation.mismatches").count());
+        assertEquals(850.0, walletService.temporaryMoney(2L).orElseThrow());
+    }
+}